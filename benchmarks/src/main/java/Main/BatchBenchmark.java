@@ -0,0 +1,78 @@
+package Main;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes batches of small messages through the batch API, next to the same messages encoded
+ * one stream at a time, to show the per-message setup the batch saves.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+    private static final int MESSAGES = 64;
+
+    @Param({"4096", "65536"})
+    public int size;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Encoder encoder;
+    private Decoder decoder;
+    private List<ByteBuffer> messages;
+    private List<StripedEncoding> encodings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CodeParameters parameters = BenchmarkData.parameters("prime", 1);
+        encoder = new Encoder(parameters, threads);
+        decoder = new Decoder(parameters, threads);
+        messages = new ArrayList<>();
+        for (int i = 0; i < MESSAGES; ++i) {
+            messages.add(ByteBuffer.wrap(BenchmarkData.message(size + i)));
+        }
+        encodings = encoder.encodeAll(messages);
+    }
+
+    @Benchmark
+    public List<StripedEncoding> encodeAll(Throughput throughput) {
+        List<StripedEncoding> encoded = encoder.encodeAll(messages);
+        throughput.add(bytes());
+        return encoded;
+    }
+
+    @Benchmark
+    public void encodeEach(Throughput throughput) throws IOException {
+        for (ByteBuffer message : messages) {
+            encoder.encode(Channels.newChannel(new ByteArrayInputStream(message.array())),
+                    Channels.newChannel(OutputStream.nullOutputStream()));
+        }
+        throughput.add(bytes());
+    }
+
+    @Benchmark
+    public List<byte[]> decodeAll(Throughput throughput) {
+        List<byte[]> decoded = decoder.decodeAll(encodings);
+        throughput.add(bytes());
+        return decoded;
+    }
+
+    private long bytes() {
+        long bytes = 0;
+        for (ByteBuffer message : messages) {
+            bytes += message.remaining();
+        }
+        return bytes;
+    }
+}
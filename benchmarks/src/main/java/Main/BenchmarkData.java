@@ -0,0 +1,88 @@
+package Main;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The codes and messages shared by the benchmarks. Everything is generated from fixed seeds, so every run
+ * and every fork measures the same data.
+ */
+final class BenchmarkData {
+    // A fixed 257-bit prime, as config.properties would hold.
+    static final BigInteger P = BigInteger.probablePrime(257, new Random(42));
+    static final int DATA_SYMBOLS = CodeParameters.DEFAULT_DATA_SYMBOLS;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @param field  "prime" for Zp, "gf256" or "gf65536" for the binary fields.
+     * @param errors S, the number of errors the code corrects.
+     */
+    static CodeParameters parameters(String field, int errors) {
+        switch (field) {
+            case "prime":
+                return new CodeParameters(P, DATA_SYMBOLS, errors);
+            case "gf256":
+                return new CodeParameters(8, DATA_SYMBOLS, errors);
+            case "gf65536":
+                return new CodeParameters(16, DATA_SYMBOLS, errors);
+            default:
+                throw new IllegalArgumentException("Unknown field: " + field);
+        }
+    }
+
+    static byte[] message(int size) {
+        byte[] message = new byte[size];
+        new Random(size).nextBytes(message);
+        return message;
+    }
+
+    static byte[] encode(Encoder encoder, byte[] message) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        encoder.encode(Channels.newChannel(new ByteArrayInputStream(message)), Channels.newChannel(encoded));
+        return encoded.toByteArray();
+    }
+
+    /**
+     * @return the stripes of a prime field stream written by {@link Encoder#encode}.
+     */
+    static List<Encoding> readStripes(byte[] encoded) throws IOException {
+        BufferedReader is = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(encoded)));
+        StripedEncoding.readHeader(is);
+
+        List<Encoding> stripes = new ArrayList<>();
+        Encoding stripe;
+        while ((stripe = StripedEncoding.readStripe(is, Integer.MAX_VALUE)) != null) {
+            stripes.add(stripe);
+        }
+        return stripes;
+    }
+
+    static byte[] writeStripes(List<Encoding> stripes) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        StripedEncoding.writeHeader(encoded, DATA_SYMBOLS);
+        for (Encoding stripe : stripes) {
+            StripedEncoding.writeStripe(encoded, stripe);
+        }
+        return encoded.toByteArray();
+    }
+
+    /**
+     * @return a copy of the stripe with its first {@code errors} values changed.
+     */
+    static Encoding corrupt(Encoding stripe, int errors) {
+        Encoding corrupted = new Encoding();
+        corrupted.setMessageLength(stripe.getMessageLength());
+        corrupted.setSystematic(stripe.isSystematic());
+        for (int i = 0; i < stripe.size(); ++i) {
+            Encoding.PointValuePair pair = stripe.getValue(i);
+            corrupted.addValue(pair.getPoint(), i < errors ? pair.getValue().add(BigInteger.ONE) : pair.getValue());
+        }
+        return corrupted;
+    }
+}
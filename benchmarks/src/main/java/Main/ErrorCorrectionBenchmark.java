@@ -0,0 +1,85 @@
+package Main;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies, decodes and interpolates prime field codewords with a given number of wrong values in every
+ * stripe. The code corrects {@link #REDUNDANCY} errors, so every error count is correctable; the binary
+ * field backends only recover erasures and are not measured here.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorCorrectionBenchmark {
+    private static final int REDUNDANCY = 4;
+
+    @Param({"4096", "16384"})
+    public int size;
+
+    @Param({"0", "1", "4"})
+    public int errors;
+
+    private Decoder decoder;
+    private List<Encoding> stripes;
+    private List<Encoding> interpolationSets;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        CodeParameters parameters = BenchmarkData.parameters("prime", REDUNDANCY);
+        Encoder encoder = new Encoder(parameters);
+        decoder = new Decoder(parameters);
+
+        List<Encoding> clean = BenchmarkData.readStripes(BenchmarkData.encode(encoder, BenchmarkData.message(size)));
+        stripes = new ArrayList<>();
+        interpolationSets = new ArrayList<>();
+        for (Encoding stripe : clean) {
+            stripes.add(BenchmarkData.corrupt(stripe, errors));
+
+            int[] indices = new int[stripe.size()];
+            for (int i = 0; i < indices.length; ++i) {
+                indices[i] = i;
+            }
+            interpolationSets.add(stripe.createPartialEncoding(indices, stripe.size() - 2 * REDUNDANCY));
+        }
+        encoded = BenchmarkData.writeStripes(stripes);
+    }
+
+    @Benchmark
+    public void verify(Throughput throughput, Blackhole blackhole) {
+        for (Encoding stripe : stripes) {
+            blackhole.consume(decoder.verify(stripe));
+        }
+        throughput.add(size);
+    }
+
+    @Benchmark
+    public boolean decode(Throughput throughput) throws IOException {
+        boolean decoded = decoder.decode(Channels.newChannel(new ByteArrayInputStream(encoded)),
+                Channels.newChannel(OutputStream.nullOutputStream()));
+        throughput.add(size);
+        return decoded;
+    }
+
+    /**
+     * Interpolates every stripe from K intact values. The point sets repeat, so this measures the steady
+     * state with the Lagrange weights cached.
+     */
+    @Benchmark
+    public void interpolate(Throughput throughput, Blackhole blackhole) {
+        for (Encoding values : interpolationSets) {
+            blackhole.consume(Polynomial.interpolate(values, BenchmarkData.P));
+        }
+        throughput.add(size);
+    }
+}
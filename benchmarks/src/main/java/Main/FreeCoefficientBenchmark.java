@@ -0,0 +1,53 @@
+package Main;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The free coefficient strategies the "compare" command times once, measured with warmup and statistics.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FreeCoefficientBenchmark {
+    @Param({"zeroInverses", "oneInverse", "kInverses", "maximumInverses", "batchInverse"})
+    public String strategy;
+
+    @Param({"16", "64", "223"})
+    public int k;
+
+    private Encoding values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(k);
+        values = new Encoding();
+        for (int i = 1; i <= k; ++i) {
+            values.addValue(BigInteger.valueOf(i), new BigInteger(256, random));
+        }
+    }
+
+    @Benchmark
+    public BigInteger freeCoefficient() {
+        switch (strategy) {
+            case "zeroInverses":
+                return Polynomial.computeFreeCoefficientZeroInverses(values, BenchmarkData.P);
+            case "oneInverse":
+                return Polynomial.computeFreeCoefficientOneInverse(values, BenchmarkData.P);
+            case "kInverses":
+                return Polynomial.computeFreeCoefficientKInverses(values, BenchmarkData.P);
+            case "maximumInverses":
+                return Polynomial.computeFreeCoefficientMaximumInverses(values, BenchmarkData.P);
+            case "batchInverse":
+                return Polynomial.computeFreeCoefficientBatchInverse(values, BenchmarkData.P);
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package Main;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes whole messages through the streaming API, on every field backend. The decoded
+ * streams are intact; {@link ErrorCorrectionBenchmark} covers codewords with errors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamBenchmark {
+    @Param({"prime", "gf256", "gf65536"})
+    public String field;
+
+    @Param({"4096", "65536"})
+    public int size;
+
+    @Param({"1", "4"})
+    public int errors;
+
+    private Encoder encoder;
+    private Decoder decoder;
+    private byte[] message;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        CodeParameters parameters = BenchmarkData.parameters(field, errors);
+        encoder = new Encoder(parameters);
+        decoder = new Decoder(parameters);
+        message = BenchmarkData.message(size);
+        encoded = BenchmarkData.encode(encoder, message);
+    }
+
+    @Benchmark
+    public void encode(Throughput throughput) throws IOException {
+        encoder.encode(Channels.newChannel(new ByteArrayInputStream(message)), Channels.newChannel(OutputStream.nullOutputStream()));
+        throughput.add(size);
+    }
+
+    @Benchmark
+    public boolean decode(Throughput throughput) throws IOException {
+        boolean decoded = decoder.decode(Channels.newChannel(new ByteArrayInputStream(encoded)),
+                Channels.newChannel(OutputStream.nullOutputStream()));
+        throughput.add(size);
+        return decoded;
+    }
+}
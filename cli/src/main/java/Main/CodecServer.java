@@ -0,0 +1,130 @@
+package Main;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Serves a {@link CodecService} over HTTP on the loopback interface:
+ * <ul>
+ * <li>POST /encode takes the message and answers with its striped encoding, in the file format.</li>
+ * <li>POST /decode takes a striped encoding and answers with the message, or 422 if a stripe has too many
+ * errors.</li>
+ * </ul>
+ * Every exchange runs on its own I/O thread, virtual when the runtime has them, and waits there for the
+ * CPU threads of the service. When their queue is full the server answers 503, so clients back off instead
+ * of piling up requests.
+ */
+public class CodecServer implements AutoCloseable {
+    private static final int BACKLOG = 128;
+
+    private final CodecService service;
+    private final ExecutorService ioExecutor;
+    private final HttpServer server;
+
+    public CodecServer(CodecService service, int port) throws IOException {
+        this.service = service;
+        this.ioExecutor = CodecService.newIoExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+
+        server.setExecutor(ioExecutor);
+        server.createContext("/encode", exchange -> handle(exchange, this::encode));
+        server.createContext("/decode", exchange -> handle(exchange, this::decode));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the port the server listens on, the one chosen by the system if it was created with port 0.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, letting the exchanges in progress finish for up to a second, then the service.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        ioExecutor.shutdown();
+        service.close();
+    }
+
+    private void encode(HttpExchange exchange, byte[] body) throws IOException {
+        StripedEncoding encoding = service.encodeAsync(ByteBuffer.wrap(body)).join();
+
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        encoding.writeTo(response);
+        respond(exchange, 200, "text/plain", response.toByteArray());
+    }
+
+    private void decode(HttpExchange exchange, byte[] body) throws IOException {
+        StripedEncoding encoding = StripedEncoding.readFrom(new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.US_ASCII)));
+        byte[] message = service.decodeAsync(encoding).join();
+
+        if (message == null) {
+            respond(exchange, 422, "text/plain", "Too many errors in a stripe.\n".getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        respond(exchange, 200, "application/octet-stream", message);
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "text/plain", new byte[0]);
+                return;
+            }
+
+            byte[] body;
+            try (InputStream is = exchange.getRequestBody()) {
+                body = is.readAllBytes();
+            }
+
+            try {
+                handler.handle(exchange, body);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RejectedExecutionException) {
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    respond(exchange, 503, "text/plain", "Too many requests queued.\n".getBytes(StandardCharsets.US_ASCII));
+                } else if (e.getCause() instanceof IllegalArgumentException) {
+                    badRequest(exchange, (IllegalArgumentException) e.getCause());
+                } else {
+                    throw e;
+                }
+            } catch (IllegalArgumentException e) {
+                badRequest(exchange, e);
+            }
+        }
+    }
+
+    // Also answers an encoding in the wrong format, which fails with a NumberFormatException.
+    private static void badRequest(HttpExchange exchange, IllegalArgumentException e) throws IOException {
+        respond(exchange, 400, "text/plain", (e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange, byte[] body) throws IOException;
+    }
+}
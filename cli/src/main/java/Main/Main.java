@@ -0,0 +1,183 @@
+package Main;
+
+import com.google.common.base.Stopwatch;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Created by Cip on 05-Mar-17.
+ */
+public class Main {
+    private static final String ENCODER_INPUT_FILE = "input.txt";
+    private static final String ENCODER_OUTPUT_FILE = "encoded_output.txt";
+    private static final String DECODER_INPUT_FILE = ENCODER_OUTPUT_FILE;
+    private static final String DECODER_OUTPUT_FILE = "decoded_output.txt";
+    private static final String BINARY_OUTPUT_FILE = "encoded_output.bin";
+    private static final String STRIPED_OUTPUT_FILE = "encoded_striped_output.txt";
+    private static final String PROPERTIES_FILE = "config.properties";
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final int DEFAULT_PORT = 8080;
+    // Requests waiting for a CPU thread of the server, per thread, before new ones are answered 503.
+    private static final int QUEUED_REQUESTS_PER_THREAD = 16;
+
+    /**
+     * @param args optionally, the properties file of the code, config.properties by default. It is only read
+     *             once a command is given.
+     */
+    public static void main(String[] args) {
+        String propertiesFile = args.length > 0 ? args[0] : PROPERTIES_FILE;
+        System.out.print("Enter command: ");
+
+        Stopwatch watch;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(System.in))) {
+            // Only serve takes an argument, the port.
+            String[] command = br.readLine().trim().toLowerCase().split("\\s+");
+            CodeParameters parameters = CodeParameters.fromProperties(propertiesFile);
+            Encoder encoder = new Encoder(parameters, PARALLELISM);
+            Decoder decoder = new Decoder(parameters, PARALLELISM);
+
+            switch (command[0]) {
+                case "encode":
+                    watch = Stopwatch.createStarted();
+
+                    Encoding encoding = encoder.encodeMessage(ENCODER_INPUT_FILE);
+                    encoding.toFile(ENCODER_OUTPUT_FILE);
+                    System.out.println("Encoding time: " + watch);
+                    break;
+
+                case "decode":
+                    encoding = Encoding.fromFile(DECODER_INPUT_FILE);
+                    watch = Stopwatch.createStarted();
+                    if (!decoder.decodeBerlekampWelch(encoding, DECODER_OUTPUT_FILE)) {
+                        System.out.println("Too many errors in the encoding. Decoding failed!");
+                    }
+                    System.out.println("Decoding time: " + watch);
+                    break;
+
+                case "encode-binary":
+                    watch = Stopwatch.createStarted();
+                    encoder.encodeMessage(ENCODER_INPUT_FILE).toBinaryFile(BINARY_OUTPUT_FILE);
+                    System.out.println("Binary encoding time: " + watch);
+                    break;
+
+                case "decode-binary":
+                    encoding = Encoding.fromBinaryFile(BINARY_OUTPUT_FILE);
+                    if (!encoding.isChecksumValid()) {
+                        System.out.println("Checksum mismatch, the encoding has corrupted values.");
+                    }
+                    watch = Stopwatch.createStarted();
+                    if (!decoder.decodeBerlekampWelch(encoding, DECODER_OUTPUT_FILE)) {
+                        System.out.println("Too many errors in the encoding. Decoding failed!");
+                    }
+                    System.out.println("Binary decoding time: " + watch);
+                    break;
+
+                case "verify":
+                    encoding = Encoding.fromFile(DECODER_INPUT_FILE);
+                    watch = Stopwatch.createStarted();
+                    System.out.println("Encoding is " + decoder.verify(encoding) + ".");
+                    System.out.println("Verification time: " + watch);
+                    break;
+
+                case "decode-random":
+                    encoding = Encoding.fromFile(DECODER_INPUT_FILE);
+                    watch = Stopwatch.createStarted();
+                    if (!decoder.decodeOneInverse(encoding, DECODER_OUTPUT_FILE)) {
+                        System.out.println("Did not find a valid polynomial. Decoding failed!");
+                    }
+                    System.out.println("Random decoding time: " + watch);
+                    break;
+
+                case "encode-striped":
+                    watch = Stopwatch.createStarted();
+                    encoder.encodeStriped(ENCODER_INPUT_FILE, parameters.getDataSymbols()).toFile(STRIPED_OUTPUT_FILE);
+                    System.out.println("Striped encoding time: " + watch);
+                    break;
+
+                case "decode-striped":
+                    StripedEncoding striped = StripedEncoding.fromFile(STRIPED_OUTPUT_FILE);
+                    watch = Stopwatch.createStarted();
+                    if (!decoder.decodeStriped(striped, DECODER_OUTPUT_FILE)) {
+                        System.out.println("Too many errors in a stripe. Decoding failed!");
+                    }
+                    System.out.println("Striped decoding time: " + watch);
+                    break;
+
+                case "encode-stream":
+                    watch = Stopwatch.createStarted();
+                    try (FileChannel in = FileChannel.open(Paths.get(ENCODER_INPUT_FILE));
+                         FileChannel out = FileChannel.open(Paths.get(STRIPED_OUTPUT_FILE), StandardOpenOption.WRITE,
+                                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                        encoder.encode(in, out);
+                    }
+                    System.out.println("Streaming encoding time: " + watch);
+                    break;
+
+                case "decode-stream":
+                    watch = Stopwatch.createStarted();
+                    try (FileChannel in = FileChannel.open(Paths.get(STRIPED_OUTPUT_FILE));
+                         FileChannel out = FileChannel.open(Paths.get(DECODER_OUTPUT_FILE), StandardOpenOption.WRITE,
+                                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                        if (!decoder.decode(in, out)) {
+                            System.out.println("Too many errors in a stripe. Decoding failed!");
+                        }
+                    }
+                    System.out.println("Streaming decoding time: " + watch);
+                    break;
+
+                case "compare":
+                    if (parameters.isBinaryField()) {
+                        System.out.println("The comparison needs a prime field code.");
+                        break;
+                    }
+                    BigInteger p = parameters.getP();
+                    encoding = Encoding.fromFile(DECODER_INPUT_FILE);
+                    encoding = encoding.createPartialEncoding(encoding.size() - 1);
+
+                    watch = Stopwatch.createStarted();
+                    Polynomial.computeFreeCoefficientZeroInverses(encoding, p);
+                    System.out.println("Free coefficient computation zero inverses: " + watch);
+
+                    watch = Stopwatch.createStarted();
+                    Polynomial.computeFreeCoefficientOneInverse(encoding, p);
+                    System.out.println("Free coefficient computation one inverse: " + watch);
+
+                    watch = Stopwatch.createStarted();
+                    Polynomial.computeFreeCoefficientKInverses(encoding, p);
+                    System.out.println("Free coefficient computation K inverses: " + watch);
+
+                    watch = Stopwatch.createStarted();
+                    Polynomial.computeFreeCoefficientMaximumInverses(encoding, p);
+                    System.out.println("Free coefficient computation maximum inverses: " + watch);
+
+                    watch = Stopwatch.createStarted();
+                    Polynomial.computeFreeCoefficientBatchInverse(encoding, p);
+                    System.out.println("Free coefficient computation batch inverse: " + watch);
+                    break;
+
+                case "serve":
+                    int port = command.length > 1 ? Integer.parseInt(command[1]) : DEFAULT_PORT;
+                    CodecServer server = new CodecServer(
+                            new CodecService(parameters, PARALLELISM, PARALLELISM * QUEUED_REQUESTS_PER_THREAD), port);
+                    Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+                    server.start();
+                    // The server threads keep the JVM running once main returns.
+                    System.out.println("Serving POST /encode and /decode on http://127.0.0.1:" + server.getPort() + "/");
+                    break;
+
+                default:
+                    System.out.println("Invalid command.");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalArgumentException e) {
+            // For example a command that needs a prime field run with a binary field code.
+            System.out.println(e.getMessage());
+        }
+    }
+
+}
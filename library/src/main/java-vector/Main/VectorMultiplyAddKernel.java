@@ -0,0 +1,38 @@
+package Main;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link MultiplyAddKernel} with the Vector API: the 32 products of c are loaded as one vector, and every
+ * vector of symbols is multiplied with two lane selections from it, one indexed by the low nibbles and one
+ * by the high nibbles moved to 16..31.
+ */
+final class VectorMultiplyAddKernel implements MultiplyAddKernel {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    VectorMultiplyAddKernel() {
+        if (SPECIES.length() < BinaryExtensionField.NIBBLE_TABLES_BYTES) {
+            throw new UnsupportedOperationException("Vectors too short for the product tables: " + SPECIES);
+        }
+    }
+
+    @Override
+    public int multiplyAdd(byte[] tables, int tableOffset, byte[] src, byte[] dst, int offset, int end) {
+        ByteVector products = ByteVector.fromArray(SPECIES, tables, tableOffset);
+        int bound = offset + SPECIES.loopBound(end - offset);
+
+        int i = offset;
+        for (; i < bound; i += SPECIES.length()) {
+            ByteVector symbols = ByteVector.fromArray(SPECIES, src, i);
+            ByteVector low = symbols.and((byte) 0x0F);
+            ByteVector high = symbols.lanewise(VectorOperators.LSHR, 4).or((byte) 0x10);
+            ByteVector.fromArray(SPECIES, dst, i)
+                    .lanewise(VectorOperators.XOR, low.selectFrom(products))
+                    .lanewise(VectorOperators.XOR, high.selectFrom(products))
+                    .intoArray(dst, i);
+        }
+        return i;
+    }
+}
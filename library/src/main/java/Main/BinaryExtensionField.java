@@ -0,0 +1,155 @@
+package Main;
+
+/**
+ * The field GF(2^m), for m = 8 or 16, with its elements as ints in [0, 2^m). Addition is XOR and
+ * multiplication is two lookups in precomputed log/exp tables, so the primitive int methods never allocate.
+ */
+public class BinaryExtensionField {
+    // The products of a constant with the 16 low and the 16 high nibbles, for MultiplyAddKernel.
+    static final int NIBBLE_TABLES_BYTES = 32;
+    // Room after the tables of 0xFF, so that a kernel can load them as a vector of up to 512 bits.
+    private static final int NIBBLE_TABLES_PADDING = 64;
+    private static final MultiplyAddKernel KERNEL = MultiplyAddKernel.load();
+
+    public static final BinaryExtensionField GF_256 = new BinaryExtensionField(8, 0x11D);
+    public static final BinaryExtensionField GF_65536 = new BinaryExtensionField(16, 0x1100B);
+
+    private final int degree;
+    private final int order;
+    private final int[] exp;
+    private final int[] log;
+    // Full product table, only kept for GF(2^8) where it takes 64 KB.
+    private final byte[] products;
+    // The nibble tables of every constant, NIBBLE_TABLES_BYTES apart, only kept for GF(2^8).
+    private final byte[] nibbleProducts;
+
+    /**
+     * @param degree               m, the number of bits of an element.
+     * @param primitivePolynomial the primitive polynomial of degree m the field is built with, as a bit mask.
+     */
+    public BinaryExtensionField(int degree, int primitivePolynomial) {
+        Validate.isTrue(degree == 8 || degree == 16, "Field degree not supported: %d.", degree);
+
+        this.degree = degree;
+        this.order = 1 << degree;
+        this.exp = new int[2 * (order - 1)];
+        this.log = new int[order];
+
+        int x = 1;
+        for (int i = 0; i < order - 1; ++i) {
+            exp[i] = x;
+            exp[i + order - 1] = x;
+            log[x] = i;
+
+            x <<= 1;
+            if (x >= order) {
+                x ^= primitivePolynomial;
+            }
+            Validate.isTrue(x != 1 || i == order - 2, "Polynomial is not primitive: %x.", primitivePolynomial);
+        }
+
+        if (degree == 8) {
+            products = new byte[order * order];
+            for (int a = 1; a < order; ++a) {
+                for (int b = 1; b < order; ++b) {
+                    products[(a << 8) | b] = (byte) multiply(a, b);
+                }
+            }
+
+            nibbleProducts = new byte[order * NIBBLE_TABLES_BYTES + NIBBLE_TABLES_PADDING];
+            for (int c = 0; c < order; ++c) {
+                for (int nibble = 0; nibble < 16; ++nibble) {
+                    nibbleProducts[c * NIBBLE_TABLES_BYTES + nibble] = (byte) multiply(c, nibble);
+                    nibbleProducts[c * NIBBLE_TABLES_BYTES + 16 + nibble] = (byte) multiply(c, nibble << 4);
+                }
+            }
+        } else {
+            products = null;
+            nibbleProducts = null;
+        }
+    }
+
+    /**
+     * @return whether {@link #multiplyAdd(int, byte[], byte[], int, int)} runs the Vector API kernel.
+     */
+    public static boolean isVectorized() {
+        return KERNEL != MultiplyAddKernel.SCALAR;
+    }
+
+    public int getDegree() {
+        return degree;
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    public int add(int a, int b) {
+        return a ^ b;
+    }
+
+    public int multiply(int a, int b) {
+        if (a == 0 || b == 0) {
+            return 0;
+        }
+        return exp[log[a] + log[b]];
+    }
+
+    public int inverse(int a) {
+        Validate.isTrue(a != 0, "Zero has no inverse.");
+        return exp[order - 1 - log[a]];
+    }
+
+    public int pow(int a, int exponent) {
+        if (exponent == 0) {
+            return 1;
+        }
+        if (a == 0) {
+            return 0;
+        }
+        return exp[(int) ((long) log[a] * exponent % (order - 1))];
+    }
+
+    /**
+     * Multiplies a region of symbols by a constant and XORs the products into another region, that is
+     * dst[i] += c * src[i]. Symbols of GF(2^16) take two bytes, most significant first. Over GF(2^8), the
+     * vectorized {@link MultiplyAddKernel} handles the region when it is available.
+     *
+     * @param c      the constant.
+     * @param src    the symbols multiplied.
+     * @param dst    the symbols the products are added to.
+     * @param offset the first byte of the region, in both arrays.
+     * @param length the number of bytes of the region, a multiple of the symbol size.
+     */
+    public void multiplyAdd(int c, byte[] src, byte[] dst, int offset, int length) {
+        if (c == 0) {
+            return;
+        }
+
+        int end = offset + length;
+        if (products != null) {
+            int row = c << 8;
+            for (int i = KERNEL.multiplyAdd(nibbleProducts, c * NIBBLE_TABLES_BYTES, src, dst, offset, end); i < end; ++i) {
+                dst[i] ^= products[row | (src[i] & 0xFF)];
+            }
+            return;
+        }
+
+        int logC = log[c];
+        for (int i = offset; i < end; i += 2) {
+            int symbol = ((src[i] & 0xFF) << 8) | (src[i + 1] & 0xFF);
+            if (symbol != 0) {
+                int product = exp[logC + log[symbol]];
+                dst[i] ^= (byte) (product >>> 8);
+                dst[i + 1] ^= (byte) product;
+            }
+        }
+    }
+
+    /**
+     * @return the number of message bytes that fit in one element.
+     */
+    public int getSymbolSizeBytes() {
+        return degree / Byte.SIZE;
+    }
+}
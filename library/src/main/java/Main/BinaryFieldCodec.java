@@ -0,0 +1,388 @@
+package Main;
+
+import java.util.Arrays;
+
+/**
+ * Reed-Solomon codec over GF(2^8) or GF(2^16), working on shards instead of on one polynomial per message.
+ * Like the prime field codec, it corrects up to S wrong shards, or more generally e wrong and f missing
+ * shards as long as 2e + f <= 2S.
+ * <p>
+ * The message is split into k equal data shards and every column of symbols, one from each data shard, is
+ * encoded as its own codeword: the column holds the coefficients of the message polynomial, and codeword
+ * shard j keeps its value in the point j, with j in {1, 2, ..., n} and n = k + 2S + 1, exactly as
+ * {@link Polynomial#eval(java.math.BigInteger)} does it. Since the value in a point is a fixed linear
+ * combination of the coefficients, a whole shard is encoded with k calls of
+ * {@link BinaryExtensionField#multiplyAdd(int, byte[], byte[], int, int)}.
+ */
+public class BinaryFieldCodec {
+    private final BinaryExtensionField field;
+    private final int dataShards;
+    private final int totalShards;
+    // generator[j][i] = (j + 1)^(k - i), the factor of coefficient i in the value of point j + 1.
+    private final int[][] generator;
+
+    public BinaryFieldCodec(BinaryExtensionField field, int dataShards, int errors) {
+        Validate.isTrue(dataShards > 0 && errors >= 0, "Code parameters invalid: k = %d, S = %d.", dataShards, errors);
+
+        this.field = field;
+        this.dataShards = dataShards;
+        this.totalShards = dataShards + 2 * errors + 1;
+        Validate.isTrue(totalShards < field.getOrder(), "Too many shards for the field: %d.", totalShards);
+
+        this.generator = new int[totalShards][dataShards];
+        for (int j = 0; j < totalShards; ++j) {
+            for (int i = 0; i < dataShards; ++i) {
+                generator[j][i] = field.pow(j + 1, dataShards - i);
+            }
+        }
+    }
+
+    public BinaryExtensionField getField() {
+        return field;
+    }
+
+    public int getDataShards() {
+        return dataShards;
+    }
+
+    public int getTotalShards() {
+        return totalShards;
+    }
+
+    /**
+     * @param messageLength the number of bytes of the message.
+     * @return the number of bytes of every shard of the message, a multiple of the symbol size.
+     */
+    public int getShardSize(int messageLength) {
+        int symbolSize = field.getSymbolSizeBytes();
+        int symbols = (messageLength + dataShards * symbolSize - 1) / (dataShards * symbolSize);
+        return Math.max(symbols, 1) * symbolSize;
+    }
+
+    /**
+     * @param message the bytes to encode.
+     * @return the n codeword shards; the message is padded with zeroes up to k shards.
+     */
+    public byte[][] encode(byte[] message) {
+        int shardSize = getShardSize(message.length);
+        byte[][] data = new byte[dataShards][shardSize];
+        for (int i = 0; i < dataShards; ++i) {
+            int offset = i * shardSize;
+            if (offset < message.length) {
+                System.arraycopy(message, offset, data[i], 0, Math.min(shardSize, message.length - offset));
+            }
+        }
+
+        byte[][] shards = new byte[totalShards][];
+        for (int j = 0; j < totalShards; ++j) {
+            shards[j] = encodeShard(j, data, shardSize);
+        }
+
+        return shards;
+    }
+
+    private byte[] encodeShard(int j, byte[][] data, int shardSize) {
+        byte[] shard = new byte[shardSize];
+        for (int i = 0; i < dataShards; ++i) {
+            field.multiplyAdd(generator[j][i], data[i], shard, 0, shardSize);
+        }
+        return shard;
+    }
+
+    /**
+     * Rebuilds the message from the first k of the codeword shards trusted, by inverting the generator rows
+     * of the shards used, then encodes the other shards present again from it and compares them. While some
+     * shard differs, the column of symbols where it differs is decoded with Berlekamp-Welch, the shards wrong
+     * in that column stop being trusted, and the message is rebuilt from the others. A wrong shard is found
+     * in every round, so an intact codeword costs one rebuild and one with e wrong shards at most e + 1.
+     *
+     * @param shards        the codeword shards, with null for the missing ones.
+     * @param messageLength the number of bytes of the message.
+     * @return the message, or null if there were too many wrong shards.
+     */
+    public byte[] decode(byte[][] shards, int messageLength) {
+        Validate.isTrue(shards.length == totalShards, "Expected %d shards.", totalShards);
+
+        int present = 0;
+        for (byte[] shard : shards) {
+            present += shard == null ? 0 : 1;
+        }
+        Validate.isTrue(present >= dataShards, "At least %d shards are needed, found %d.", dataShards, present);
+
+        int shardSize = getShardSize(messageLength);
+        boolean[] wrong = new boolean[totalShards];
+        while (true) {
+            int[] rows = trustedRows(shards, wrong);
+            if (rows.length < dataShards) {
+                return null;
+            }
+
+            byte[][] data = rebuild(shards, rows, shardSize);
+            int column = findMismatch(shards, rows, data, shardSize);
+            if (column < 0) {
+                return toMessage(data, shardSize, messageLength);
+            }
+
+            int[] errors = locateErrors(shards, rows, column);
+            if (errors == null) {
+                return null;
+            }
+            for (int j : errors) {
+                wrong[j] = true;
+            }
+        }
+    }
+
+    private int[] trustedRows(byte[][] shards, boolean[] wrong) {
+        int[] rows = new int[totalShards];
+        int count = 0;
+        for (int j = 0; j < totalShards; ++j) {
+            if (shards[j] != null && !wrong[j]) {
+                rows[count++] = j;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    // The data shards of the codeword through the first k rows.
+    private byte[][] rebuild(byte[][] shards, int[] rows, int shardSize) {
+        int[][] matrix = new int[dataShards][];
+        for (int r = 0; r < dataShards; ++r) {
+            matrix[r] = generator[rows[r]];
+        }
+        int[][] inverse = invert(matrix);
+
+        byte[][] data = new byte[dataShards][shardSize];
+        for (int i = 0; i < dataShards; ++i) {
+            for (int r = 0; r < dataShards; ++r) {
+                field.multiplyAdd(inverse[i][r], shards[rows[r]], data[i], 0, shardSize);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * @return the offset of a symbol where a row after the first k differs from its shard encoded from the
+     * data, or -1 if they all agree.
+     */
+    private int findMismatch(byte[][] shards, int[] rows, byte[][] data, int shardSize) {
+        for (int r = dataShards; r < rows.length; ++r) {
+            int mismatch = Arrays.mismatch(shards[rows[r]], encodeShard(rows[r], data, shardSize));
+            if (mismatch >= 0) {
+                return mismatch - mismatch % field.getSymbolSizeBytes();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes one column of symbols with Berlekamp-Welch. The value of shard j is (j + 1) * M(j + 1), with M
+     * of degree k - 1, so the values divided by their points are a codeword of M. With e = (rows - k) / 2,
+     * the error locator E, monic of degree e, and Q = M * E, of degree at most k - 1 + e, solve the linear
+     * equations Q(x) = y * E(x), one per row, and M = Q / E when at most e values are wrong.
+     *
+     * @return the shards whose value in the column is wrong, or null if more than e are, or if the rows
+     * leave no room to correct errors.
+     */
+    private int[] locateErrors(byte[][] shards, int[] rows, int column) {
+        int errors = (rows.length - dataShards) / 2;
+        if (errors == 0) {
+            return null;
+        }
+
+        int[] x = new int[rows.length];
+        int[] y = new int[rows.length];
+        for (int r = 0; r < rows.length; ++r) {
+            x[r] = rows[r] + 1;
+            y[r] = field.multiply(readSymbol(shards[rows[r]], column), field.inverse(x[r]));
+        }
+
+        // The unknowns: the coefficients of Q, then the low coefficients of E, from the lowest degree.
+        int unknowns = dataShards + 2 * errors;
+        int[][] system = new int[rows.length][unknowns + 1];
+        for (int r = 0; r < rows.length; ++r) {
+            int power = 1;
+            for (int a = 0; a < dataShards + errors; ++a) {
+                system[r][a] = power;
+                if (a < errors) {
+                    system[r][dataShards + errors + a] = field.multiply(y[r], power);
+                }
+                power = field.multiply(power, x[r]);
+            }
+            system[r][unknowns] = field.multiply(y[r], field.pow(x[r], errors));
+        }
+
+        int[] solution = solve(system, unknowns);
+        if (solution == null) {
+            return null;
+        }
+
+        int[] locator = new int[errors + 1];
+        System.arraycopy(solution, dataShards + errors, locator, 0, errors);
+        locator[errors] = 1;
+        int[] message = divideExactly(Arrays.copyOf(solution, dataShards + errors), locator);
+        if (message == null) {
+            return null;
+        }
+
+        int[] wrong = new int[errors];
+        int count = 0;
+        for (int r = 0; r < rows.length; ++r) {
+            if (evaluate(message, x[r]) != y[r]) {
+                if (count == errors) {
+                    return null;
+                }
+                wrong[count++] = rows[r];
+            }
+        }
+        return count == 0 ? null : Arrays.copyOf(wrong, count);
+    }
+
+    private int readSymbol(byte[] shard, int offset) {
+        int symbol = 0;
+        for (int i = 0; i < field.getSymbolSizeBytes(); ++i) {
+            symbol = (symbol << Byte.SIZE) | (shard[offset + i] & 0xFF);
+        }
+        return symbol;
+    }
+
+    /**
+     * Gaussian elimination of a system with more equations than unknowns, the last column holding the
+     * constants. The unknowns without a pivot are set to zero.
+     *
+     * @return a solution, or null if the equations contradict each other.
+     */
+    private int[] solve(int[][] system, int unknowns) {
+        int[] pivotRows = new int[unknowns];
+        Arrays.fill(pivotRows, -1);
+
+        int row = 0;
+        for (int column = 0; column < unknowns && row < system.length; ++column) {
+            int pivot = row;
+            while (pivot < system.length && system[pivot][column] == 0) {
+                ++pivot;
+            }
+            if (pivot == system.length) {
+                continue;
+            }
+
+            int[] swap = system[pivot];
+            system[pivot] = system[row];
+            system[row] = swap;
+
+            int pivotInverse = field.inverse(system[row][column]);
+            for (int j = column; j <= unknowns; ++j) {
+                system[row][j] = field.multiply(system[row][j], pivotInverse);
+            }
+            for (int i = 0; i < system.length; ++i) {
+                int factor = system[i][column];
+                if (i == row || factor == 0) {
+                    continue;
+                }
+                for (int j = column; j <= unknowns; ++j) {
+                    system[i][j] ^= field.multiply(factor, system[row][j]);
+                }
+            }
+
+            pivotRows[column] = row++;
+        }
+
+        for (int i = row; i < system.length; ++i) {
+            if (system[i][unknowns] != 0) {
+                return null;
+            }
+        }
+
+        int[] solution = new int[unknowns];
+        for (int column = 0; column < unknowns; ++column) {
+            if (pivotRows[column] >= 0) {
+                solution[column] = system[pivotRows[column]][unknowns];
+            }
+        }
+        return solution;
+    }
+
+    /**
+     * @param dividend the coefficients, from the lowest degree.
+     * @param divisor  the coefficients of a monic polynomial, from the lowest degree.
+     * @return the quotient, or null if the division leaves a remainder.
+     */
+    private int[] divideExactly(int[] dividend, int[] divisor) {
+        int[] remainder = dividend.clone();
+        int degree = divisor.length - 1;
+        int[] quotient = new int[dividend.length - degree];
+        for (int i = quotient.length - 1; i >= 0; --i) {
+            int factor = remainder[i + degree];
+            quotient[i] = factor;
+            for (int t = 0; t <= degree; ++t) {
+                remainder[i + t] ^= field.multiply(factor, divisor[t]);
+            }
+        }
+
+        for (int t = 0; t < degree; ++t) {
+            if (remainder[t] != 0) {
+                return null;
+            }
+        }
+        return quotient;
+    }
+
+    private int evaluate(int[] coefficients, int x) {
+        int value = 0;
+        for (int i = coefficients.length - 1; i >= 0; --i) {
+            value = field.multiply(value, x) ^ coefficients[i];
+        }
+        return value;
+    }
+
+    private byte[] toMessage(byte[][] data, int shardSize, int messageLength) {
+        byte[] message = new byte[dataShards * shardSize];
+        for (int i = 0; i < dataShards; ++i) {
+            System.arraycopy(data[i], 0, message, i * shardSize, shardSize);
+        }
+        return Arrays.copyOf(message, messageLength);
+    }
+
+    private int[][] invert(int[][] matrix) {
+        int size = matrix.length;
+        int[][] a = new int[size][];
+        int[][] inverse = new int[size][size];
+        for (int i = 0; i < size; ++i) {
+            a[i] = matrix[i].clone();
+            inverse[i][i] = 1;
+        }
+
+        for (int column = 0; column < size; ++column) {
+            int pivot = column;
+            while (a[pivot][column] == 0) {
+                ++pivot;
+            }
+
+            int[] swap = a[pivot];
+            a[pivot] = a[column];
+            a[column] = swap;
+            swap = inverse[pivot];
+            inverse[pivot] = inverse[column];
+            inverse[column] = swap;
+
+            int pivotInverse = field.inverse(a[column][column]);
+            for (int j = 0; j < size; ++j) {
+                a[column][j] = field.multiply(a[column][j], pivotInverse);
+                inverse[column][j] = field.multiply(inverse[column][j], pivotInverse);
+            }
+
+            for (int i = 0; i < size; ++i) {
+                int factor = a[i][column];
+                if (i == column || factor == 0) {
+                    continue;
+                }
+                for (int j = 0; j < size; ++j) {
+                    a[i][j] ^= field.multiply(factor, a[column][j]);
+                    inverse[i][j] ^= field.multiply(factor, inverse[column][j]);
+                }
+            }
+        }
+
+        return inverse;
+    }
+}
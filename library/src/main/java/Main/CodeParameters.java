@@ -0,0 +1,165 @@
+package Main;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * The parameters of the code, shared by the encoder and the decoder: k data symbols per codeword, the
+ * error budget S, so n = k + 2S + 1 symbols per codeword, and the symbol width.
+ * <p>
+ * A width of 8 or 16 bits selects the table-driven GF(2^m) backend, the shard codec of {@link BinaryFieldCodec},
+ * which only the stream methods of the encoder and the decoder support; any other width selects the prime
+ * field Zp, with p a prime of that many bits, so that a block of width - 1 bits always fits below p.
+ */
+public class CodeParameters {
+    public static final int DEFAULT_SYMBOL_BITS = 257;
+    public static final int DEFAULT_DATA_SYMBOLS = 223;
+    public static final int DEFAULT_ERRORS = 1;
+
+    private static final String P_KEY = "p";
+    private static final String SYMBOL_BITS_KEY = "symbolBits";
+    private static final String DATA_SYMBOLS_KEY = "k";
+    private static final String ERRORS_KEY = "s";
+    private static final String SYSTEMATIC_KEY = "systematic";
+
+    private final int symbolBits;
+    private final int dataSymbols;
+    private final int errors;
+    private final BigInteger p;
+    private final BinaryExtensionField binaryField;
+    private final boolean systematic;
+
+    /**
+     * Parameters of a code over the prime field Zp.
+     */
+    public CodeParameters(BigInteger p, int dataSymbols, int errors) {
+        this(p, dataSymbols, errors, false);
+    }
+
+    /**
+     * @param systematic whether codewords keep the data blocks as their values in the first k points, see
+     *                   {@link Encoding#isSystematic()}.
+     */
+    public CodeParameters(BigInteger p, int dataSymbols, int errors, boolean systematic) {
+        Validate.isTrue(p.bitLength() > Byte.SIZE, "Prime too small for a one byte block: %s.", p);
+        Validate.isTrue(dataSymbols > 0 && errors >= 0, "Code parameters invalid: k = %d, S = %d.", dataSymbols, errors);
+
+        this.symbolBits = p.bitLength();
+        this.dataSymbols = dataSymbols;
+        this.errors = errors;
+        this.p = p;
+        this.binaryField = null;
+        this.systematic = systematic;
+    }
+
+    /**
+     * Parameters of a code over GF(2^8) or GF(2^16).
+     */
+    public CodeParameters(int symbolBits, int dataSymbols, int errors) {
+        Validate.isTrue(symbolBits == 8 || symbolBits == 16, "Binary field width not supported: %d.", symbolBits);
+        Validate.isTrue(dataSymbols > 0 && errors >= 0, "Code parameters invalid: k = %d, S = %d.", dataSymbols, errors);
+
+        this.symbolBits = symbolBits;
+        this.dataSymbols = dataSymbols;
+        this.errors = errors;
+        this.p = null;
+        this.binaryField = symbolBits == 8 ? BinaryExtensionField.GF_256 : BinaryExtensionField.GF_65536;
+        this.systematic = false;
+        Validate.isTrue(getTotalSymbols() < binaryField.getOrder(), "Too many symbols for the field: %d.", getTotalSymbols());
+    }
+
+    /**
+     * Reads the parameters from a properties file with the keys p, symbolBits, k, s and systematic; only p is
+     * needed for the prime field, the other keys default to a 257-bit prime, k = 223, S = 1 and a non-systematic
+     * code. When the file has no prime for a prime field, a random one is generated and stored in the file.
+     */
+    public static CodeParameters fromProperties(String filename) throws IOException {
+        Properties props = new Properties();
+        if (Files.exists(Paths.get(filename))) {
+            try (InputStream is = new FileInputStream(filename)) {
+                props.load(is);
+            }
+        }
+
+        int symbolBits = Integer.parseInt(props.getProperty(SYMBOL_BITS_KEY, String.valueOf(DEFAULT_SYMBOL_BITS)));
+        int dataSymbols = Integer.parseInt(props.getProperty(DATA_SYMBOLS_KEY, String.valueOf(DEFAULT_DATA_SYMBOLS)));
+        int errors = Integer.parseInt(props.getProperty(ERRORS_KEY, String.valueOf(DEFAULT_ERRORS)));
+        boolean systematic = Boolean.parseBoolean(props.getProperty(SYSTEMATIC_KEY));
+
+        if (symbolBits == 8 || symbolBits == 16) {
+            Validate.isTrue(!systematic, "Systematic codes need a prime field.");
+            return new CodeParameters(symbolBits, dataSymbols, errors);
+        }
+
+        if (props.getProperty(P_KEY) == null) {
+            props.setProperty(P_KEY, BigInteger.probablePrime(symbolBits, new Random()).toString());
+            try (OutputStream os = new FileOutputStream(filename)) {
+                props.store(os, null);
+            }
+        }
+        return new CodeParameters(new BigInteger(props.getProperty(P_KEY)), dataSymbols, errors, systematic);
+    }
+
+    public boolean isBinaryField() {
+        return binaryField != null;
+    }
+
+    /**
+     * @return the prime of the field, or null for a binary field.
+     */
+    public BigInteger getP() {
+        return p;
+    }
+
+    /**
+     * @return the binary field, or null for a prime field.
+     */
+    public BinaryExtensionField getBinaryField() {
+        return binaryField;
+    }
+
+    public int getSymbolBits() {
+        return symbolBits;
+    }
+
+    /**
+     * @return the number of message bytes per data symbol.
+     */
+    public int getBlockSizeBytes() {
+        return isBinaryField() ? symbolBits / Byte.SIZE : (symbolBits - 1) / Byte.SIZE;
+    }
+
+    /**
+     * @return k, the number of data symbols per codeword.
+     */
+    public int getDataSymbols() {
+        return dataSymbols;
+    }
+
+    /**
+     * @return S, the number of errors a codeword can correct.
+     */
+    public int getErrors() {
+        return errors;
+    }
+
+    public boolean isSystematic() {
+        return systematic;
+    }
+
+    /**
+     * @return n = k + 2S + 1, the number of symbols per codeword.
+     */
+    public int getTotalSymbols() {
+        return dataSymbols + 2 * errors + 1;
+    }
+
+    public BinaryFieldCodec newBinaryCodec() {
+        Validate.isTrue(isBinaryField(), "Not a binary field code.");
+        return new BinaryFieldCodec(binaryField, dataSymbols, errors);
+    }
+}
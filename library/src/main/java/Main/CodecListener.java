@@ -0,0 +1,61 @@
+package Main;
+
+/**
+ * Receives the measurements of an {@link Encoder} or a {@link Decoder}; {@link CodecMetrics} aggregates them
+ * into counters and latency histograms. Every method does nothing by default, and with {@link #NONE}, the
+ * listener codecs start with, the codec does not even read the clock.
+ */
+public interface CodecListener {
+    CodecListener NONE = new CodecListener() {
+    };
+
+    /**
+     * The parts of the work that are timed separately.
+     */
+    enum Stage {
+        // Encoding one codeword, or one chunk of shards.
+        ENCODE,
+        // Decoding one codeword, or one chunk of shards, whatever stages it took.
+        DECODE,
+        // The syndrome check of a received codeword.
+        VERIFICATION,
+        // One candidate subset tested by the random subset search.
+        FREE_COEFFICIENT_CHECK,
+        // Lagrange interpolation through K values.
+        INTERPOLATION,
+        // Berlekamp-Welch, from the linear system to the checked polynomial.
+        ERROR_CORRECTION
+    }
+
+    /**
+     * @param bytes   the message bytes of the codeword.
+     * @param symbols the symbols written.
+     * @param nanos   the time the encoding took.
+     */
+    default void encoded(long bytes, long symbols, long nanos) {
+    }
+
+    /**
+     * @param bytes   the message bytes recovered.
+     * @param symbols the symbols read.
+     * @param nanos   the time the decoding took, all stages included.
+     */
+    default void decoded(long bytes, long symbols, long nanos) {
+    }
+
+    default void stage(Stage stage, long nanos) {
+    }
+
+    /**
+     * @param attempts the candidate subsets tested by one random subset search.
+     * @param found    whether the search found a subset without errors.
+     */
+    default void subsetSearch(long attempts, boolean found) {
+    }
+
+    /**
+     * @param errors the wrong values of a codeword that decoding corrected.
+     */
+    default void errorsCorrected(int errors) {
+    }
+}
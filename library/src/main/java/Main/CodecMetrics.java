@@ -0,0 +1,160 @@
+package Main;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@link CodecListener} keeping totals in striped counters and a latency histogram per stage, so that the
+ * threads of a codec record without contention. One instance can be shared by any number of encoders and
+ * decoders, and read over JMX once registered.
+ */
+public class CodecMetrics implements CodecListener, CodecMetricsMXBean {
+    private final LongAdder bytesEncoded = new LongAdder();
+    private final LongAdder bytesDecoded = new LongAdder();
+    private final LongAdder symbolsEncoded = new LongAdder();
+    private final LongAdder symbolsDecoded = new LongAdder();
+    private final LongAdder searchAttempts = new LongAdder();
+    private final LongAdder searchSuccesses = new LongAdder();
+    private final LongAdder errorsCorrected = new LongAdder();
+    private final Map<Stage, LongAdder> stageNanos = new EnumMap<>(Stage.class);
+    private final Map<Stage, LatencyHistogram> stageLatencies = new EnumMap<>(Stage.class);
+
+    public CodecMetrics() {
+        for (Stage stage : Stage.values()) {
+            stageNanos.put(stage, new LongAdder());
+            stageLatencies.put(stage, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, under Main:type=CodecMetrics,name={@code name}.
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("Main:type=CodecMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public void encoded(long bytes, long symbols, long nanos) {
+        bytesEncoded.add(bytes);
+        symbolsEncoded.add(symbols);
+        stage(Stage.ENCODE, nanos);
+    }
+
+    @Override
+    public void decoded(long bytes, long symbols, long nanos) {
+        bytesDecoded.add(bytes);
+        symbolsDecoded.add(symbols);
+        stage(Stage.DECODE, nanos);
+    }
+
+    @Override
+    public void stage(Stage stage, long nanos) {
+        stageNanos.get(stage).add(nanos);
+        stageLatencies.get(stage).record(nanos);
+    }
+
+    @Override
+    public void subsetSearch(long attempts, boolean found) {
+        searchAttempts.add(attempts);
+        if (found) {
+            searchSuccesses.increment();
+        }
+    }
+
+    @Override
+    public void errorsCorrected(int errors) {
+        errorsCorrected.add(errors);
+    }
+
+    @Override
+    public long getBytesEncoded() {
+        return bytesEncoded.sum();
+    }
+
+    @Override
+    public long getBytesDecoded() {
+        return bytesDecoded.sum();
+    }
+
+    @Override
+    public double getEncodedSymbolsPerSecond() {
+        return perSecond(symbolsEncoded.sum(), stageNanos.get(Stage.ENCODE).sum());
+    }
+
+    @Override
+    public double getDecodedSymbolsPerSecond() {
+        return perSecond(symbolsDecoded.sum(), stageNanos.get(Stage.DECODE).sum());
+    }
+
+    @Override
+    public double getSubsetSearchAttemptsPerSuccess() {
+        long successes = searchSuccesses.sum();
+        return successes == 0 ? Double.NaN : (double) searchAttempts.sum() / successes;
+    }
+
+    @Override
+    public long getErrorsCorrected() {
+        return errorsCorrected.sum();
+    }
+
+    @Override
+    public Map<String, Long> getStageCounts() {
+        return byStage(stage -> stageLatencies.get(stage).count());
+    }
+
+    @Override
+    public Map<String, Long> getStageTotalNanos() {
+        return byStage(stage -> stageNanos.get(stage).sum());
+    }
+
+    @Override
+    public Map<String, Long> getStageMedianNanos() {
+        return byStage(stage -> stageLatencies.get(stage).percentile(50));
+    }
+
+    @Override
+    public Map<String, Long> getStage99thPercentileNanos() {
+        return byStage(stage -> stageLatencies.get(stage).percentile(99));
+    }
+
+    @Override
+    public long latencyPercentile(String stage, double percentile) {
+        Validate.isTrue(0 <= percentile && percentile <= 100, "Percentile invalid: %s.", percentile);
+        return stageLatencies.get(Stage.valueOf(stage)).percentile(percentile);
+    }
+
+    /**
+     * Clears every counter and histogram. Measurements recorded while resetting may be lost.
+     */
+    @Override
+    public void reset() {
+        for (LongAdder counter : new LongAdder[]{bytesEncoded, bytesDecoded, symbolsEncoded, symbolsDecoded,
+                searchAttempts, searchSuccesses, errorsCorrected}) {
+            counter.reset();
+        }
+        for (Stage stage : Stage.values()) {
+            stageNanos.get(stage).reset();
+            stageLatencies.get(stage).reset();
+        }
+    }
+
+    private static Map<String, Long> byStage(ToLongFunction<Stage> value) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            result.put(stage.name(), value.applyAsLong(stage));
+        }
+        return result;
+    }
+
+    private static double perSecond(long count, long nanos) {
+        return nanos == 0 ? 0 : count * 1e9 / nanos;
+    }
+}
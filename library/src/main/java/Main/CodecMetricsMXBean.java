@@ -0,0 +1,41 @@
+package Main;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link CodecMetrics}. Latencies are in nanoseconds, keyed by the names of
+ * {@link CodecListener.Stage}.
+ */
+public interface CodecMetricsMXBean {
+
+    long getBytesEncoded();
+
+    long getBytesDecoded();
+
+    double getEncodedSymbolsPerSecond();
+
+    double getDecodedSymbolsPerSecond();
+
+    /**
+     * @return the candidate subsets tested by the random subset search per search that succeeded.
+     */
+    double getSubsetSearchAttemptsPerSuccess();
+
+    long getErrorsCorrected();
+
+    Map<String, Long> getStageCounts();
+
+    Map<String, Long> getStageTotalNanos();
+
+    Map<String, Long> getStageMedianNanos();
+
+    Map<String, Long> getStage99thPercentileNanos();
+
+    /**
+     * @param stage      the name of the stage.
+     * @param percentile in [0, 100].
+     */
+    long latencyPercentile(String stage, double percentile);
+
+    void reset();
+}
@@ -0,0 +1,118 @@
+package Main;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A long-running front end to one encoder and one decoder, for processes that serve many requests and pay
+ * the JVM startup and the JIT warmup once.
+ * <p>
+ * The field arithmetic runs on a fixed number of CPU threads behind a bounded queue. A request that finds
+ * the queue full is not queued: its future fails at once with a {@link RejectedExecutionException}, and the
+ * caller is expected to retry later. The threads waiting on the results, such as those of a server doing
+ * I/O, belong to the caller; {@link #newIoExecutor()} gives a suitable executor for them.
+ */
+public class CodecService implements AutoCloseable {
+    private final Encoder encoder;
+    private final Decoder decoder;
+    private final ThreadPoolExecutor cpuExecutor;
+
+    /**
+     * @param parameters    a prime field code.
+     * @param threads       the threads doing the field arithmetic.
+     * @param queueCapacity the requests waiting for a thread before new requests are rejected.
+     */
+    public CodecService(CodeParameters parameters, int threads, int queueCapacity) {
+        Validate.isTrue(!parameters.isBinaryField(), "The codec service needs a prime field code.");
+        Validate.isTrue(threads > 0, "Thread count invalid: %d.", threads);
+        Validate.isTrue(queueCapacity >= 0, "Queue capacity invalid: %d.", queueCapacity);
+
+        this.encoder = new Encoder(parameters);
+        this.decoder = new Decoder(parameters);
+        this.cpuExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity),
+                daemonThreads("codec-cpu-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * @param listener receives the measurements of every request from now on.
+     */
+    public void setListener(CodecListener listener) {
+        encoder.setListener(listener);
+        decoder.setListener(listener);
+    }
+
+    /**
+     * Encodes the remaining bytes of the buffer as {@link Encoder#encodeAll(java.util.List)} does. The
+     * buffer must not change until the future is done.
+     */
+    public CompletableFuture<StripedEncoding> encodeAsync(ByteBuffer message) {
+        return submit(() -> encoder.encodeBuffer(message));
+    }
+
+    /**
+     * Decodes the message as {@link Decoder#decodeAll(java.util.List)} does.
+     *
+     * @return a future of the message, or of null if a stripe had too many errors.
+     */
+    public CompletableFuture<byte[]> decodeAsync(StripedEncoding encoding) {
+        return submit(() -> decoder.decodeToBytes(encoding));
+    }
+
+    /**
+     * @return the requests waiting for a CPU thread.
+     */
+    public int getQueuedRequests() {
+        return cpuExecutor.getQueue().size();
+    }
+
+    /**
+     * Stops accepting requests. The requests already accepted still complete.
+     */
+    @Override
+    public void close() {
+        cpuExecutor.shutdown();
+    }
+
+    /**
+     * @return an executor starting one virtual thread per task when the runtime has them (Java 21 and
+     * later), otherwise a cached pool of daemon threads. Either way, tasks blocked on I/O or on a future
+     * do not hold back the others.
+     */
+    public static ExecutorService newIoExecutor() {
+        try {
+            // Looked up by reflection, so that the library still builds and runs on Java 17.
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            // On Java 19 and 20 virtual threads are a preview feature, which fails when it is not enabled.
+            return Executors.newCachedThreadPool(daemonThreads("codec-io-"));
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            cpuExecutor.execute(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,922 @@
+package Main;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Created by Cip on 05-Mar-17.
+ * <p>
+ * A decoder keeps no state between calls, so one instance serves any number of threads.
+ */
+public class Decoder {
+    private static final String PROPERTIES_FILE = "config.properties";
+
+    private CodeParameters parameters;
+    private BigInteger p;
+    private int S;
+    private int parallelism = 1;
+    // Null when the subset search runs on the calling thread.
+    private ForkJoinPool pool;
+    // Volatile, since the listener may be replaced while other threads decode.
+    private volatile CodecListener listener = CodecListener.NONE;
+
+    public Decoder() throws IOException {
+        this(CodeParameters.fromProperties(PROPERTIES_FILE));
+    }
+
+    /**
+     * @param parallelism the number of threads testing candidate subsets concurrently.
+     */
+    public Decoder(int parallelism) throws IOException {
+        this(CodeParameters.fromProperties(PROPERTIES_FILE), parallelism);
+    }
+
+    public Decoder(CodeParameters parameters) {
+        this(parameters, 1);
+    }
+
+    public Decoder(CodeParameters parameters, int parallelism) {
+        Validate.isTrue(parallelism > 0, "Parallelism invalid: %d.", parallelism);
+
+        this.parameters = parameters;
+        this.p = parameters.getP();
+        this.S = parameters.getErrors();
+        this.parallelism = parallelism;
+        if (parallelism > 1) {
+            this.pool = new ForkJoinPool(parallelism);
+        }
+    }
+
+    /**
+     * @param listener receives the stage timings, subset searches and corrections of every codeword decoded
+     *                 from now on.
+     */
+    public void setListener(CodecListener listener) {
+        this.listener = listener == null ? CodecListener.NONE : listener;
+    }
+
+    /**
+     * Decodes the message by searching for K values without errors.
+     *
+     * @return false if no subset of the values gave a valid polynomial, in which case nothing is written.
+     */
+    public boolean decodeOneInverse(Encoding encodedMessage, String filename) throws IOException {
+        requirePrimeField();
+        long start = Timing.start(listener);
+        Polynomial reconstructed = findPolynomial(encodedMessage);
+        if (reconstructed == null) {
+            return false;
+        }
+
+        Polynomial message = toMessage(encodedMessage, reconstructed, countBlocks(encodedMessage));
+        if (listener != CodecListener.NONE) {
+            listener.errorsCorrected(countWrongValues(reconstructed, encodedMessage.getPoints(), encodedMessage.getValues()));
+            reportDecoded(encodedMessage, countBlocks(encodedMessage), start);
+        }
+        message.writeCoefficientsToFile(filename, countBlocks(encodedMessage), encodedMessage.getMessageLength());
+        return true;
+    }
+
+    /**
+     * Decodes the message deterministically with the Berlekamp-Welch algorithm, correcting up to S errors in
+     * one run of polynomial time. An intact systematic codeword is copied without decoding.
+     *
+     * @return false if more than S values were wrong, in which case nothing is written.
+     */
+    public boolean decodeBerlekampWelch(Encoding encodedMessage, String filename) throws IOException {
+        requirePrimeField();
+        Polynomial message = decodeMessage(encodedMessage);
+        if (message == null) {
+            return false;
+        }
+
+        message.writeCoefficientsToFile(filename, countBlocks(encodedMessage), encodedMessage.getMessageLength());
+        return true;
+    }
+
+    /**
+     * Decodes a message whose values at some points are known to be lost, for example on a missing shard.
+     * With f erased values, up to e errors among the others are corrected as long as 2e + f <= 2S.
+     *
+     * @param encodedMessage the received values; values at erased points, if present, are ignored.
+     * @param erasedPoints   the points whose values are missing; with the points of the other values, they
+     *                       must be the points 1..n of the codeword, each one once.
+     * @return false if there were too many errors and erasures, in which case nothing is written.
+     */
+    public boolean decodeWithErasures(Encoding encodedMessage, Set<BigInteger> erasedPoints, String filename) throws IOException {
+        requirePrimeField();
+        long start = Timing.start(listener);
+        Encoding surviving = new Encoding();
+        for (int i = 0; i < encodedMessage.size(); ++i) {
+            if (!erasedPoints.contains(encodedMessage.getValue(i).getPoint())) {
+                surviving.addValue(encodedMessage.getValue(i));
+            }
+        }
+
+        int n = surviving.size() + erasedPoints.size();
+        requireCodewordPoints(surviving, erasedPoints, n);
+        Polynomial reconstructed = decodeErasures(surviving, n - 2 * S);
+        if (reconstructed == null) {
+            return false;
+        }
+
+        Polynomial message = toMessage(encodedMessage, reconstructed, n - 2 * S - 1);
+        reportDecoded(encodedMessage, n - 2 * S - 1, start);
+        message.writeCoefficientsToFile(filename, n - 2 * S - 1, encodedMessage.getMessageLength());
+        return true;
+    }
+
+    /**
+     * The length of the codeword, hence the number of blocks, is counted from the erased points, so a point
+     * that is not in the codeword, or a value given twice, would decode a shifted message.
+     */
+    private static void requireCodewordPoints(Encoding surviving, Set<BigInteger> erasedPoints, int n) {
+        boolean[] seen = new boolean[n + 1];
+        for (BigInteger point : erasedPoints) {
+            Validate.isTrue(point.signum() > 0 && point.compareTo(BigInteger.valueOf(n)) <= 0,
+                    "Erased point %s is not in the codeword of %d points.", point, n);
+            seen[point.intValue()] = true;
+        }
+        for (BigInteger point : surviving.getPoints()) {
+            Validate.isTrue(point.signum() > 0 && point.compareTo(BigInteger.valueOf(n)) <= 0 && !seen[point.intValue()],
+                    "Point %s is repeated or not in the codeword of %d points.", point, n);
+            seen[point.intValue()] = true;
+        }
+    }
+
+    /**
+     * When only erasures are left to fix (no spare values for errors) the polynomial is interpolated
+     * directly from K of the surviving values, and any extra surviving value is checked against it.
+     * Otherwise Berlekamp-Welch runs on the surviving values with the error budget they leave.
+     */
+    private Polynomial decodeErasures(Encoding surviving, int K) {
+        if (surviving.size() < K) {
+            return null;
+        }
+
+        int errors = (surviving.size() - K) / 2;
+        if (errors > 0) {
+            return berlekampWelch(surviving, K, errors);
+        }
+
+        int[] indices = new int[surviving.size()];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = i;
+        }
+        Polynomial reconstructed = interpolate(surviving.createPartialEncoding(indices, K));
+        if (reconstructed == null) {
+            return null;
+        }
+
+        for (int i = K; i < surviving.size(); ++i) {
+            Encoding.PointValuePair pair = surviving.getValue(i);
+            if (!reconstructed.eval(pair.getPoint()).equals(pair.getValue().mod(p))) {
+                return null;
+            }
+        }
+        return reconstructed;
+    }
+
+    /**
+     * Decodes every stripe on its own and writes the recovered blocks to the file, in stripe order.
+     *
+     * @return false if a stripe had too many errors, in which case the file is deleted.
+     */
+    public boolean decodeStriped(StripedEncoding encodedMessage, String filename) throws IOException {
+        requirePrimeField();
+        boolean decoded = true;
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(filename))) {
+            for (int i = 0; i < encodedMessage.size() && decoded; ++i) {
+                Encoding stripe = encodedMessage.getStripe(i);
+                Polynomial message = decodeMessage(stripe);
+                if (message == null) {
+                    decoded = false;
+                } else {
+                    message.writeCoefficients(os, countBlocks(stripe), stripe.getMessageLength());
+                }
+            }
+        }
+
+        if (!decoded) {
+            Files.delete(Paths.get(filename));
+        }
+        return decoded;
+    }
+
+    /**
+     * Decodes the messages of {@link Encoder#encodeAll(List)} in memory, every stripe as
+     * {@link #decodeStriped(StripedEncoding, String)} does. With a pool, every thread decodes whole messages.
+     *
+     * @return the messages, in the order of the encodings, with null for those with a stripe that had too
+     * many errors.
+     */
+    public List<byte[]> decodeAll(List<StripedEncoding> encodings) {
+        List<byte[]> messages = new ArrayList<>(encodings.size());
+        decodeAll(encodings, (message, index) -> messages.add(message));
+        return messages;
+    }
+
+    /**
+     * Same as {@link #decodeAll(List)}, handing every message to the callback with the index of its encoding
+     * as soon as it is decoded. The callback runs on the calling thread, in the order of the encodings, and
+     * at most one encoding per thread of the pool is decoded ahead of it.
+     */
+    public void decodeAll(List<StripedEncoding> encodings, ObjIntConsumer<byte[]> callback) {
+        requirePrimeField();
+        OrderedWindow<byte[], RuntimeException> window = new OrderedWindow<>(pool, callback::accept);
+        for (StripedEncoding encoding : encodings) {
+            window.submit(() -> decodeToBytes(encoding));
+        }
+        window.finish();
+    }
+
+    byte[] decodeToBytes(StripedEncoding encodedMessage) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try {
+            for (int i = 0; i < encodedMessage.size(); ++i) {
+                Encoding stripe = encodedMessage.getStripe(i);
+                Polynomial message = decodeMessage(stripe);
+                if (message == null) {
+                    return null;
+                }
+
+                message.writeCoefficients(os, countBlocks(stripe), stripe.getMessageLength());
+            }
+        } catch (IOException e) {
+            // A ByteArrayOutputStream does not throw.
+            throw new UncheckedIOException(e);
+        }
+
+        return os.toByteArray();
+    }
+
+    /**
+     * Streaming version of {@link #decodeStriped(StripedEncoding, String)}: reads a striped encoding one
+     * stripe at a time and writes the blocks of every stripe as soon as it is decoded, so memory stays
+     * bounded by one stripe whatever the input size. The channels are not closed.
+     *
+     * @param in  the striped encoding, in the StripedEncoding format.
+     * @param out the channel the message is written to.
+     * @return false if a stripe had too many errors, in which case the output stops before that stripe.
+     */
+    public boolean decode(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        if (parameters.isBinaryField()) {
+            return decodeShards(in, out);
+        }
+
+        BufferedReader is = new BufferedReader(Channels.newReader(in, StandardCharsets.US_ASCII.newDecoder(), -1));
+        OutputStream os = new BufferedOutputStream(Channels.newOutputStream(out));
+        int stripeSize = StripedEncoding.readHeader(is);
+        Validate.isTrue(stripeSize > 0, "Stripe size invalid: %d.", stripeSize);
+        long maxValues = stripeSize + 2L * S + 1;
+
+        try {
+            Encoding stripe;
+            while ((stripe = StripedEncoding.readStripe(is, maxValues)) != null) {
+                Polynomial message = decodeMessage(stripe);
+                if (message == null) {
+                    return false;
+                }
+
+                message.writeCoefficients(os, countBlocks(stripe), stripe.getMessageLength());
+            }
+        } finally {
+            os.flush();
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads the chunks written by {@link Encoder#encode(ReadableByteChannel, WritableByteChannel)} over a
+     * binary field. Every chunk is decoded by {@link BinaryFieldCodec#decode(byte[][], int)}, which corrects
+     * up to S wrong shards.
+     *
+     * @return false if a chunk had too many wrong shards, in which case the output stops before that chunk.
+     */
+    private boolean decodeShards(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        BinaryFieldCodec codec = parameters.newBinaryCodec();
+        DataInputStream is = new DataInputStream(new BufferedInputStream(Channels.newInputStream(in)));
+        OutputStream os = new BufferedOutputStream(Channels.newOutputStream(out));
+
+        try {
+            int messageLength;
+            while ((messageLength = readChunkLength(is)) >= 0) {
+                byte[][] shards = new byte[codec.getTotalShards()][codec.getShardSize(messageLength)];
+                for (byte[] shard : shards) {
+                    is.readFully(shard);
+                }
+
+                long start = Timing.start(listener);
+                byte[] message = codec.decode(shards, messageLength);
+                if (message == null) {
+                    return false;
+                }
+                if (listener != CodecListener.NONE) {
+                    listener.decoded(messageLength, (long) shards.length * shards[0].length / parameters.getBlockSizeBytes(),
+                            System.nanoTime() - start);
+                }
+                os.write(message);
+            }
+        } finally {
+            os.flush();
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the message length of the next chunk, or -1 at the end of the stream.
+     */
+    private static int readChunkLength(DataInputStream is) throws IOException {
+        try {
+            return is.readInt();
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the polynomial whose coefficients are the blocks of the codeword, or null if it has more than S
+     * errors.
+     */
+    private Polynomial decodeMessage(Encoding encodedMessage) {
+        long start = Timing.start(listener);
+        Integrity integrity = verify(encodedMessage);
+        if (integrity == Integrity.UNCORRECTABLE) {
+            return null;
+        }
+
+        if (integrity == Integrity.CLEAN) {
+            // Any K values of an intact codeword give the polynomial, and a systematic one holds the blocks.
+            Polynomial message = encodedMessage.isSystematic() ? readSystematic(encodedMessage) : interpolateClean(encodedMessage);
+            if (message != null) {
+                reportDecoded(encodedMessage, countBlocks(encodedMessage), start);
+                return message;
+            }
+        }
+
+        Polynomial reconstructed = berlekampWelch(encodedMessage, encodedMessage.size() - 2 * S, S);
+        if (reconstructed == null) {
+            return null;
+        }
+
+        Polynomial message = toMessage(encodedMessage, reconstructed, countBlocks(encodedMessage));
+        reportDecoded(encodedMessage, countBlocks(encodedMessage), start);
+        return message;
+    }
+
+    /**
+     * Checks the codeword without reconstructing its polynomial, with O(n * S) multiplications.
+     * <p>
+     * Together with the virtual value 0 in the point 0, the n values are those of a polynomial of degree at
+     * most k in n + 1 points, so with v_j = 1 / M'(x_j) for the master polynomial M of all n + 1 points,
+     * the syndromes s_m = sum of v_j * x_j^m * y_j, for m in [0, 2S], are all zero exactly when no value is
+     * wrong. Otherwise they are power sums of the wrong points, whose locator polynomial Berlekamp-Massey
+     * finds: the codeword is correctable when the locator has degree at most S and as many roots among the
+     * points.
+     * <p>
+     * A codeword of fewer than 2S + 1 values, or with two values in the same point or one in the point 0,
+     * cannot be checked, and is reported as uncorrectable.
+     */
+    public Integrity verify(Encoding encodedMessage) {
+        requirePrimeField();
+        long start = Timing.start(listener);
+        Integrity integrity = checkIntegrity(encodedMessage);
+        if (listener != CodecListener.NONE) {
+            listener.stage(CodecListener.Stage.VERIFICATION, System.nanoTime() - start);
+        }
+        return integrity;
+    }
+
+    private Integrity checkIntegrity(Encoding encodedMessage) {
+        if (encodedMessage.size() < 2 * S + 1 || !hasDistinctPoints(encodedMessage)) {
+            return Integrity.UNCORRECTABLE;
+        }
+
+        BigInteger[] syndromes = computeSyndromes(encodedMessage);
+        boolean clean = true;
+        for (BigInteger syndrome : syndromes) {
+            clean &= syndrome.signum() == 0;
+        }
+        if (clean) {
+            return Integrity.CLEAN;
+        }
+
+        BigInteger[] locator = berlekampMassey(syndromes);
+        int errors = locator.length - 1;
+        if (errors > S) {
+            return Integrity.UNCORRECTABLE;
+        }
+
+        // The locator is the product of (1 - x_j * z) over the wrong points, so x_j is a root of its reverse.
+        int roots = 0;
+        for (BigInteger received : encodedMessage.getPoints()) {
+            BigInteger point = received.mod(p);
+            BigInteger value = BigInteger.ZERO;
+            for (BigInteger coefficient : locator) {
+                value = value.multiply(point).add(coefficient).mod(p);
+            }
+            if (value.signum() == 0) {
+                ++roots;
+            }
+        }
+
+        return roots == errors ? Integrity.CORRECTABLE : Integrity.UNCORRECTABLE;
+    }
+
+    // The syndromes use the virtual point 0, so the points must differ from 0 as well as from each other.
+    private boolean hasDistinctPoints(Encoding encodedMessage) {
+        Set<BigInteger> points = new HashSet<>();
+        points.add(BigInteger.ZERO);
+        for (BigInteger point : encodedMessage.getPoints()) {
+            if (!points.add(point.mod(p))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private BigInteger[] computeSyndromes(Encoding encodedMessage) {
+        BigInteger[] received = encodedMessage.getPoints();
+        BigInteger[] extended = new BigInteger[received.length + 1];
+        extended[0] = BigInteger.ZERO;
+        System.arraycopy(received, 0, extended, 1, received.length);
+        BigInteger[] values = encodedMessage.getValues();
+
+        LagrangeWeights lagrange = LagrangeWeights.of(extended, p);
+        MontgomeryField field = lagrange.getField();
+        long[][] points = lagrange.getPoints();
+        long[][] weights = lagrange.getWeights();
+
+        long[][] syndromes = new long[2 * S + 1][];
+        for (int m = 0; m < syndromes.length; ++m) {
+            syndromes[m] = field.newElement();
+        }
+
+        // The virtual point 0 has the value 0 and adds nothing.
+        MontgomeryField.Accumulator term = field.newAccumulator();
+        for (int j = 1; j < points.length; ++j) {
+            term.set(field.toMontgomery(values[j - 1])).multiply(weights[j]);
+            for (long[] syndrome : syndromes) {
+                field.add(syndrome, term.get(), syndrome);
+                term.multiply(points[j]);
+            }
+        }
+
+        BigInteger[] result = new BigInteger[syndromes.length];
+        for (int m = 0; m < syndromes.length; ++m) {
+            result[m] = field.toBigInteger(syndromes[m]);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the shortest linear recurrence generating the syndromes.
+     *
+     * @return the coefficients c_0 = 1, c_1, ..., c_L of the connection polynomial, lowest degree first,
+     * with L the number of wrong values if there are at most S of them.
+     */
+    private BigInteger[] berlekampMassey(BigInteger[] syndromes) {
+        BigInteger[] connection = new BigInteger[syndromes.length + 1];
+        BigInteger[] previous = new BigInteger[syndromes.length + 1];
+        Arrays.fill(connection, BigInteger.ZERO);
+        Arrays.fill(previous, BigInteger.ZERO);
+        connection[0] = BigInteger.ONE;
+        previous[0] = BigInteger.ONE;
+
+        int length = 0;
+        int shift = 1;
+        BigInteger previousDiscrepancy = BigInteger.ONE;
+
+        for (int n = 0; n < syndromes.length; ++n) {
+            BigInteger discrepancy = syndromes[n];
+            for (int i = 1; i <= length; ++i) {
+                discrepancy = discrepancy.add(connection[i].multiply(syndromes[n - i]));
+            }
+            discrepancy = discrepancy.mod(p);
+
+            if (discrepancy.signum() == 0) {
+                ++shift;
+                continue;
+            }
+
+            BigInteger[] saved = connection.clone();
+            BigInteger factor = discrepancy.multiply(previousDiscrepancy.modInverse(p)).mod(p);
+            for (int i = shift; i < connection.length; ++i) {
+                connection[i] = connection[i].subtract(factor.multiply(previous[i - shift])).mod(p);
+            }
+
+            if (2 * length <= n) {
+                length = n + 1 - length;
+                previous = saved;
+                previousDiscrepancy = discrepancy;
+                shift = 1;
+            } else {
+                ++shift;
+            }
+        }
+
+        return Arrays.copyOf(connection, length + 1);
+    }
+
+    /**
+     * @return the polynomial through K values of an intact codeword.
+     */
+    private Polynomial interpolateClean(Encoding encodedMessage) {
+        int[] indices = new int[encodedMessage.size()];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = i;
+        }
+        return interpolate(encodedMessage.createPartialEncoding(indices, encodedMessage.size() - 2 * S));
+    }
+
+    /**
+     * {@link Polynomial#tryInterpolate(Encoding, BigInteger)}, timed as the interpolation stage.
+     */
+    private Polynomial interpolate(Encoding partialEncoding) {
+        long start = Timing.start(listener);
+        Polynomial result = Polynomial.tryInterpolate(partialEncoding, p);
+        if (listener != CodecListener.NONE) {
+            listener.stage(CodecListener.Stage.INTERPOLATION, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * The read path of an intact systematic codeword: the values in the points 1..k already are the blocks,
+     * so they are copied as they are.
+     *
+     * @return the polynomial whose coefficients are the blocks, or null if one of them is missing.
+     */
+    private Polynomial readSystematic(Encoding encodedMessage) {
+        int blocks = countBlocks(encodedMessage);
+        if (blocks <= 0) {
+            return null;
+        }
+
+        BigInteger[] points = encodedMessage.getPoints();
+        BigInteger[] values = encodedMessage.getValues();
+        BigInteger[] data = new BigInteger[blocks];
+        for (int i = 0; i < points.length; ++i) {
+            if (points[i].signum() > 0 && points[i].compareTo(BigInteger.valueOf(blocks)) <= 0) {
+                data[points[i].intValue() - 1] = values[i].mod(p);
+            }
+        }
+
+        for (BigInteger block : data) {
+            if (block == null) {
+                return null;
+            }
+        }
+        return new Polynomial(p, Arrays.asList(data));
+    }
+
+    /**
+     * Turns a decoded polynomial into the polynomial whose coefficients are the blocks: for a systematic
+     * codeword the blocks are its values in the points 1..k, otherwise they already are its coefficients.
+     */
+    private Polynomial toMessage(Encoding encodedMessage, Polynomial reconstructed, int blocks) {
+        if (!encodedMessage.isSystematic()) {
+            return reconstructed;
+        }
+
+        List<BigInteger> points = new ArrayList<>(blocks);
+        for (int i = 1; i <= blocks; ++i) {
+            points.add(BigInteger.valueOf(i));
+        }
+        return new Polynomial(p, reconstructed.evalAll(points));
+    }
+
+    /**
+     * The codeword of k blocks holds k + 2S + 1 values.
+     */
+    private int countBlocks(Encoding encodedMessage) {
+        return encodedMessage.size() - 2 * S - 1;
+    }
+
+    private void reportDecoded(Encoding encodedMessage, int blocks, long start) {
+        if (listener == CodecListener.NONE) {
+            return;
+        }
+
+        long bytes = encodedMessage.getMessageLength() >= 0 ? encodedMessage.getMessageLength()
+                : (long) blocks * parameters.getBlockSizeBytes();
+        listener.decoded(bytes, encodedMessage.size(), System.nanoTime() - start);
+    }
+
+    /**
+     * Tests the K-subsets of the values, in a random order, until one of them has a zero free coefficient.
+     * With a pool, every thread runs the search and the first subset found is returned at once; the other
+     * threads stop after the candidate they are testing.
+     */
+    private Polynomial findPolynomial(Encoding encodedMessage) {
+        SubsetSearch search = new SubsetSearch(encodedMessage, encodedMessage.size() - 2 * S, parallelism);
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+
+        if (pool == null) {
+            search.run();
+        } else {
+            for (int i = 0; i < parallelism; ++i) {
+                workers.add(pool.submit(search));
+            }
+        }
+
+        Encoding partialEncoding = search.result.join();
+        for (ForkJoinTask<?> worker : workers) {
+            worker.cancel(true);
+        }
+        listener.subsetSearch(search.attempts.sum(), partialEncoding != null);
+
+        // The free coefficient of the subset found is zero, so the interpolation cannot fail.
+        return partialEncoding == null ? null : interpolate(partialEncoding);
+    }
+
+    /**
+     * The shared state of the subset search. The C(n, K) subsets are numbered in lexicographic order, and
+     * the i-th subset tested is the one numbered (offset + i * stride) mod C(n, K), with a random offset and a
+     * random stride prime to C(n, K). That visits every subset exactly once in an order that looks random,
+     * without remembering which subsets were tried; the threads share only the counter i.
+     */
+    private class SubsetSearch implements Runnable {
+        private final Encoding encodedMessage;
+        private final int K;
+        private final BigInteger subsetCount;
+        private final long limit;
+        private final BigInteger offset;
+        private final BigInteger stride;
+        // C(n - 1, K - 1), the number of subsets holding the first value.
+        private final BigInteger firstCount;
+        private final AtomicLong next = new AtomicLong();
+        private final AtomicInteger running;
+        // Only counted when someone listens.
+        private final LongAdder attempts = new LongAdder();
+        private final CompletableFuture<Encoding> result = new CompletableFuture<>();
+
+        SubsetSearch(Encoding encodedMessage, int K, int workers) {
+            int n = encodedMessage.size();
+            this.encodedMessage = encodedMessage;
+            this.K = K;
+            this.subsetCount = countSubsets(n, K);
+            this.limit = subsetCount.min(BigInteger.valueOf(Long.MAX_VALUE)).longValue();
+            this.firstCount = subsetCount.multiply(BigInteger.valueOf(K)).divide(BigInteger.valueOf(n));
+            this.running = new AtomicInteger(workers);
+
+            Random random = ThreadLocalRandom.current();
+            this.offset = randomBelow(subsetCount, random);
+            BigInteger stride = randomBelow(subsetCount, random);
+            while (!stride.gcd(subsetCount).equals(BigInteger.ONE)) {
+                stride = randomBelow(subsetCount, random);
+            }
+            this.stride = stride;
+        }
+
+        @Override
+        public void run() {
+            int[] indices = new int[K];
+
+            for (long i = next.getAndIncrement(); !result.isDone() && i < limit; i = next.getAndIncrement()) {
+                unrank(offset.add(stride.multiply(BigInteger.valueOf(i))).mod(subsetCount), encodedMessage.size(), firstCount, indices);
+
+                long start = Timing.start(listener);
+                Encoding partialEncoding = encodedMessage.createPartialEncoding(indices, K);
+                boolean found = Polynomial.computeFreeCoefficientZeroInverses(partialEncoding, p).equals(BigInteger.ZERO);
+                if (listener != CodecListener.NONE) {
+                    attempts.increment();
+                    listener.stage(CodecListener.Stage.FREE_COEFFICIENT_CHECK, System.nanoTime() - start);
+                }
+                if (found) {
+                    result.complete(partialEncoding);
+                }
+            }
+
+            if (running.decrementAndGet() == 0) {
+                result.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Writes the indices of the subset of {@code indices.length} out of n values with the given number in
+     * lexicographic order. Of the subsets still possible, C(m - 1, k - 1) take the next of the m remaining
+     * values when k are still missing: the value is taken if the number falls among them, and skipped over
+     * them otherwise.
+     *
+     * @param firstCount C(n - 1, K - 1), the number of subsets holding the first value.
+     */
+    static void unrank(BigInteger rank, int n, BigInteger firstCount, int[] indices) {
+        int K = indices.length;
+        BigInteger taking = firstCount;
+        int k = K;
+        for (int i = 0; k > 0; ++i) {
+            int m = n - i;
+            if (rank.compareTo(taking) < 0) {
+                indices[K - k] = i;
+                if (--k > 0) {
+                    // C(m - 2, k - 1) = C(m - 1, k) * k / (m - 1)
+                    taking = taking.multiply(BigInteger.valueOf(k)).divide(BigInteger.valueOf(m - 1));
+                }
+            } else {
+                rank = rank.subtract(taking);
+                // C(m - 2, k - 1) = C(m - 1, k - 1) * (m - k) / (m - 1)
+                taking = taking.multiply(BigInteger.valueOf(m - k)).divide(BigInteger.valueOf(m - 1));
+            }
+        }
+    }
+
+    private static BigInteger randomBelow(BigInteger bound, Random random) {
+        BigInteger value;
+        do {
+            value = new BigInteger(bound.bitLength(), random);
+        } while (value.compareTo(bound) >= 0);
+        return value;
+    }
+
+    /**
+     * The state of a received codeword, as found by {@link #verify(Encoding)}.
+     */
+    public enum Integrity {
+        // Every value is right.
+        CLEAN,
+        // At most S values are wrong, so decoding recovers the message.
+        CORRECTABLE,
+        // More than S values are wrong.
+        UNCORRECTABLE
+    }
+
+    static BigInteger countSubsets(int n, int k) {
+        BigInteger count = BigInteger.ONE;
+        for (int i = 0; i < k; ++i) {
+            count = count.multiply(BigInteger.valueOf(n - i)).divide(BigInteger.valueOf(i + 1));
+        }
+        return count;
+    }
+
+    /**
+     * Searches for the error locator E(X), monic of degree e, and for Q(X) = P(X) * E(X), of degree at most
+     * K - 1 + e, such that Q(x_i) = y_i * E(x_i) for every received pair. Those n >= K + 2e linear equations
+     * in the K + 2e unknown coefficients always have a solution when at most e values are wrong, and for
+     * any solution P = Q / E.
+     *
+     * @param encodedMessage the received values.
+     * @param K              the number of coefficients of P, free coefficient included.
+     * @param errors         the maximum number of wrong values, e.
+     * @return the polynomial divided by X, as returned by interpolation, or null if more than e values are wrong.
+     */
+    private Polynomial berlekampWelch(Encoding encodedMessage, int K, int errors) {
+        long start = Timing.start(listener);
+        Polynomial reconstructed = solveBerlekampWelch(encodedMessage, K, errors);
+        if (listener != CodecListener.NONE) {
+            listener.stage(CodecListener.Stage.ERROR_CORRECTION, System.nanoTime() - start);
+        }
+        return reconstructed;
+    }
+
+    private Polynomial solveBerlekampWelch(Encoding encodedMessage, int K, int errors) {
+        BigInteger[] points = encodedMessage.getPoints();
+        BigInteger[] values = encodedMessage.getValues();
+        int n = points.length;
+        int qSize = K + errors;
+        BigInteger[][] system = new BigInteger[n][qSize + errors];
+        BigInteger[] rhs = new BigInteger[n];
+
+        for (int i = 0; i < n; ++i) {
+            BigInteger point = points[i].mod(p);
+            BigInteger value = values[i].mod(p);
+            BigInteger power = BigInteger.ONE;
+
+            for (int j = 0; j < qSize; ++j) {
+                system[i][j] = power;
+                if (j < errors) {
+                    system[i][qSize + j] = p.subtract(value).multiply(power).mod(p);
+                }
+                power = power.multiply(point).mod(p);
+            }
+
+            rhs[i] = value.multiply(point.modPow(BigInteger.valueOf(errors), p)).mod(p);
+        }
+
+        BigInteger[] solution = solveLinearSystem(system, rhs);
+        if (solution == null) {
+            return null;
+        }
+
+        // Polynomial stores its coefficients starting with the highest degree.
+        List<BigInteger> qCoefficients = new ArrayList<>();
+        List<BigInteger> eCoefficients = new ArrayList<>();
+        eCoefficients.add(BigInteger.ONE);
+        for (int j = qSize - 1; j >= 0; --j) {
+            qCoefficients.add(solution[j]);
+        }
+        for (int j = errors - 1; j >= 0; --j) {
+            eCoefficients.add(solution[qSize + j]);
+        }
+
+        Polynomial reconstructed = new Polynomial(p, qCoefficients).divideExactly(new Polynomial(p, eCoefficients));
+        if (reconstructed == null || !reconstructed.removeZeroFreeCoefficient()) {
+            return null;
+        }
+
+        int wrongValues = countWrongValues(reconstructed, points, values);
+        if (wrongValues > errors) {
+            return null;
+        }
+
+        listener.errorsCorrected(wrongValues);
+        return reconstructed;
+    }
+
+    private int countWrongValues(Polynomial reconstructed, BigInteger[] points, BigInteger[] values) {
+        List<BigInteger> computed = reconstructed.evalAll(Arrays.asList(points));
+        int wrongValues = 0;
+        for (int i = 0; i < points.length; ++i) {
+            if (!computed.get(i).equals(values[i].mod(p))) {
+                ++wrongValues;
+            }
+        }
+        return wrongValues;
+    }
+
+    /**
+     * Solves the system a * x = b over Zp with Gauss-Jordan elimination, for any number of equations and
+     * unknowns; Berlekamp-Welch gives it n equations in K + 2e unknowns, usually more equations than unknowns.
+     * The pivots found give the rank; the unknowns without a pivot are free and set to zero, and the
+     * equations left without a pivot must reduce to 0 = 0.
+     *
+     * @return one solution of the system, or null if it has none.
+     */
+    private BigInteger[] solveLinearSystem(BigInteger[][] a, BigInteger[] b) {
+        int rows = a.length;
+        int columns = a[0].length;
+        int[] pivotColumns = new int[rows];
+        int rank = 0;
+
+        for (int column = 0; column < columns && rank < rows; ++column) {
+            int pivot = rank;
+            while (pivot < rows && a[pivot][column].equals(BigInteger.ZERO)) {
+                ++pivot;
+            }
+            if (pivot == rows) {
+                continue;
+            }
+
+            BigInteger[] rowSwap = a[pivot];
+            a[pivot] = a[rank];
+            a[rank] = rowSwap;
+            BigInteger valueSwap = b[pivot];
+            b[pivot] = b[rank];
+            b[rank] = valueSwap;
+
+            BigInteger inverse = a[rank][column].modInverse(p);
+            for (int j = column; j < columns; ++j) {
+                a[rank][j] = a[rank][j].multiply(inverse).mod(p);
+            }
+            b[rank] = b[rank].multiply(inverse).mod(p);
+
+            for (int i = 0; i < rows; ++i) {
+                BigInteger factor = a[i][column];
+                if (i == rank || factor.equals(BigInteger.ZERO)) {
+                    continue;
+                }
+
+                for (int j = column; j < columns; ++j) {
+                    a[i][j] = a[i][j].subtract(factor.multiply(a[rank][j])).mod(p);
+                }
+                b[i] = b[i].subtract(factor.multiply(b[rank])).mod(p);
+            }
+
+            pivotColumns[rank++] = column;
+        }
+
+        for (int i = rank; i < rows; ++i) {
+            if (!b[i].equals(BigInteger.ZERO)) {
+                return null;
+            }
+        }
+
+        BigInteger[] solution = new BigInteger[columns];
+        Arrays.fill(solution, BigInteger.ZERO);
+        for (int i = 0; i < rank; ++i) {
+            solution[pivotColumns[i]] = b[i];
+        }
+
+        return solution;
+    }
+
+    private void requirePrimeField() {
+        Validate.isTrue(!parameters.isBinaryField(), "Polynomial decoding needs a prime field code.");
+    }
+
+}
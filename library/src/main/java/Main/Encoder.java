@@ -0,0 +1,558 @@
+package Main;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Created by Cip on 03-Mar-17.
+ * <p>
+ * An encoder keeps no state between calls besides caches, so one instance serves any number of threads.
+ */
+public class Encoder {
+    private static final String PROPERTIES_FILE = "config.properties";
+    private static final int POINTS_PER_TASK = 16;
+    // The bytes of the input mapped at once by encodeStriped, rounded down to whole stripes.
+    private static final long MAP_WINDOW_BYTES = 64L << 20;
+    // Symbols per shard in the binary field stream, so a chunk holds k times as many symbols.
+    static final int SHARD_SYMBOLS = 4096;
+    // OBSERVATION: the symbol width of a prime field MUST be a multiple of 8 + 1, this property is vital in the implementation
+
+    private CodeParameters parameters;
+    private BigInteger p;
+    private int S;
+    private int blockSize;
+    // Null when encoding runs on the calling thread.
+    private ForkJoinPool pool;
+    // Volatile, since the listener may be replaced while other threads encode.
+    private volatile CodecListener listener = CodecListener.NONE;
+    // The points of the codewords, by number of points, shared by all the codewords of that size.
+    private final Map<Integer, EvaluationPoints> evaluationPoints = new ConcurrentHashMap<>();
+    // The Lagrange bases of the systematic codewords, by number of blocks.
+    private final Map<Integer, SystematicBasis> systematicBases = new ConcurrentHashMap<>();
+    // Stripes of the batch messages that are not backed by an array are copied here, one buffer per thread.
+    private final ThreadLocal<byte[]> stripeBuffers;
+
+    public Encoder() throws IOException {
+        this(CodeParameters.fromProperties(PROPERTIES_FILE));
+    }
+
+    /**
+     * @param parallelism the number of threads the evaluation points, or the stripes, are split across.
+     */
+    public Encoder(int parallelism) throws IOException {
+        this(CodeParameters.fromProperties(PROPERTIES_FILE), parallelism);
+    }
+
+    public Encoder(CodeParameters parameters) {
+        this(parameters, 1);
+    }
+
+    public Encoder(CodeParameters parameters, int parallelism) {
+        Validate.isTrue(parallelism > 0, "Parallelism invalid: %d.", parallelism);
+
+        this.parameters = parameters;
+        this.p = parameters.getP();
+        this.S = parameters.getErrors();
+        this.blockSize = parameters.getBlockSizeBytes();
+        this.stripeBuffers = ThreadLocal.withInitial(() -> new byte[parameters.getDataSymbols() * blockSize]);
+        if (parallelism > 1) {
+            this.pool = new ForkJoinPool(parallelism);
+        }
+    }
+
+    /**
+     * @param listener receives the bytes, symbols and time of every codeword encoded from now on.
+     */
+    public void setListener(CodecListener listener) {
+        this.listener = listener == null ? CodecListener.NONE : listener;
+    }
+
+    public Encoding encodeMessage(String filename) throws IOException {
+        requirePrimeField();
+        return encodePolynomial(new Polynomial(p, filename, blockSize));
+    }
+
+    /**
+     * Splits the file into stripes of {@code stripeSize} blocks and encodes each stripe as its own codeword,
+     * so the encoding time grows linearly with the file size. The file is mapped in windows of whole
+     * stripes, so it can be larger than the 2 GB a single mapping is limited to.
+     *
+     * @param filename   the file to encode.
+     * @param stripeSize the number of blocks (data symbols) per codeword.
+     * @return the encodings of all the stripes, in file order.
+     */
+    public StripedEncoding encodeStriped(String filename, int stripeSize) throws IOException {
+        requirePrimeField();
+        StripedEncoding encoding = new StripedEncoding(stripeSize);
+        byte[] stripe = new byte[stripeSize * blockSize];
+        long windowBytes = Math.max(1, MAP_WINDOW_BYTES / stripe.length) * stripe.length;
+
+        OrderedWindow<Encoding, RuntimeException> stripes =
+                new OrderedWindow<>(pool, (stripeEncoding, index) -> encoding.addStripe(stripeEncoding));
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += windowBytes) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(windowBytes, size - position));
+
+                while (window.hasRemaining()) {
+                    int length = Math.min(stripe.length, window.remaining());
+                    window.get(stripe, 0, length);
+                    // The polynomial copies the stripe, so the buffer is reused for the next one.
+                    Polynomial poly = new Polynomial(p, stripe, length, blockSize);
+                    stripes.submit(() -> encodeSequential(poly));
+                }
+            }
+        }
+        stripes.finish();
+
+        return encoding;
+    }
+
+    /**
+     * Encodes many independent messages, each one in stripes of k blocks as
+     * {@link #encode(ReadableByteChannel, WritableByteChannel)} does. The setup is paid once for the whole
+     * batch: the evaluation points are converted to Montgomery form once per codeword size, and the stripes
+     * are read in place from the buffers. With a pool, every thread encodes whole messages, which suits many
+     * small messages better than splitting the points of one codeword.
+     *
+     * @param messages the remaining bytes of every buffer; the positions of the buffers are not changed.
+     * @return the encodings, in the order of the messages.
+     */
+    public List<StripedEncoding> encodeAll(List<ByteBuffer> messages) {
+        List<StripedEncoding> encodings = new ArrayList<>(messages.size());
+        encodeAll(messages, (encoding, index) -> encodings.add(encoding));
+        return encodings;
+    }
+
+    /**
+     * Same as {@link #encodeAll(List)}, handing every encoding to the callback with the index of its message
+     * as soon as it is ready. The callback runs on the calling thread, in the order of the messages, and at
+     * most one message per thread of the pool is encoded ahead of it.
+     */
+    public void encodeAll(List<ByteBuffer> messages, ObjIntConsumer<StripedEncoding> callback) {
+        requirePrimeField();
+        OrderedWindow<StripedEncoding, RuntimeException> window = new OrderedWindow<>(pool, callback::accept);
+        for (ByteBuffer message : messages) {
+            window.submit(() -> encodeBuffer(message));
+        }
+        window.finish();
+    }
+
+    StripedEncoding encodeBuffer(ByteBuffer message) {
+        int stripeSize = parameters.getDataSymbols();
+        int stripeBytes = stripeSize * blockSize;
+        StripedEncoding encoding = new StripedEncoding(stripeSize);
+
+        for (int position = message.position(); position < message.limit(); position += stripeBytes) {
+            int length = Math.min(stripeBytes, message.limit() - position);
+            Polynomial poly;
+            if (message.hasArray()) {
+                poly = new Polynomial(p, message.array(), message.arrayOffset() + position, length, blockSize);
+            } else {
+                byte[] stripe = stripeBuffers.get();
+                message.get(position, stripe, 0, length);
+                poly = new Polynomial(p, stripe, length, blockSize);
+            }
+            encoding.addStripe(encodeSequential(poly));
+        }
+
+        return encoding;
+    }
+
+    /**
+     * Patches the encoding after block {@code blockIndex} of its message changed, without encoding the
+     * message again. The codeword is linear in the blocks, so every value moves by delta = new - old times
+     * the value, in its point, of the codeword of a message with 1 in that block and 0 everywhere else:
+     * x^(k - i) for a non-systematic codeword, and for a systematic one the Lagrange basis polynomial of the
+     * point i + 1, which leaves every data value but that of the block itself unchanged. Both take O(n)
+     * multiplications.
+     *
+     * @param encoding   a whole codeword, patched in place.
+     * @param blockIndex the index of the block in the message, from 0.
+     * @param oldBlock   the bytes of the block before the change, blockSize of them; only the final block of
+     *                   the message may be shorter, as long as the message length of the encoding leaves it.
+     * @param newBlock   the bytes of the block after the change, as many as before.
+     */
+    public void updateBlock(Encoding encoding, int blockIndex, byte[] oldBlock, byte[] newBlock) {
+        requirePrimeField();
+        int blocks = encoding.size() - 2 * S - 1;
+        Validate.isTrue(0 <= blockIndex && blockIndex < blocks, "Block index out of bounds: %d.", blockIndex);
+        Validate.isTrue(oldBlock.length == newBlock.length && isBlockLength(encoding, blockIndex, blocks, newBlock.length),
+                "Block length invalid: %d.", newBlock.length);
+
+        BigInteger delta = toCoefficient(newBlock).subtract(toCoefficient(oldBlock)).mod(p);
+        if (delta.signum() == 0) {
+            return;
+        }
+
+        BigInteger[] points = encoding.getPoints();
+        BigInteger[] values = encoding.getValues();
+        BigInteger[] factors = encoding.isSystematic()
+                ? lagrangeBasisValues(points, blocks, blockIndex + 1)
+                : powers(points, blocks - blockIndex);
+        for (int i = 0; i < points.length; ++i) {
+            if (factors[i].signum() != 0) {
+                encoding.setValue(i, values[i].add(delta.multiply(factors[i])).mod(p));
+            }
+        }
+    }
+
+    // Only the final block is padded with zeroes, so a shorter block anywhere else would patch another value.
+    private boolean isBlockLength(Encoding encoding, int blockIndex, int blocks, int length) {
+        if (blockIndex < blocks - 1) {
+            return length == blockSize;
+        }
+        if (encoding.getMessageLength() >= 0) {
+            return length == encoding.getMessageLength() - (long) blockIndex * blockSize;
+        }
+        return 0 < length && length <= blockSize;
+    }
+
+    /**
+     * Same as {@link #updateBlock(Encoding, int, byte[], byte[])} for the block of a striped encoding,
+     * counted from the start of the whole message.
+     */
+    public void updateBlock(StripedEncoding encoding, long blockIndex, byte[] oldBlock, byte[] newBlock) {
+        int stripeSize = encoding.getStripeSize();
+        Validate.isTrue(0 <= blockIndex && blockIndex / stripeSize < encoding.size(),
+                "Block index out of bounds: %d.", blockIndex);
+
+        updateBlock(encoding.getStripe((int) (blockIndex / stripeSize)), (int) (blockIndex % stripeSize), oldBlock, newBlock);
+    }
+
+    /**
+     * Encodes a stream with the configured code: in stripes of k blocks over a prime field, as
+     * {@link #encode(ReadableByteChannel, WritableByteChannel, int)} does, or in shards over a binary field.
+     * <p>
+     * The binary field stream is a sequence of chunks of at most k * {@link #SHARD_SYMBOLS} symbols, each
+     * written as the message length of the chunk followed by its n shards.
+     */
+    public void encode(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        if (!parameters.isBinaryField()) {
+            encode(in, out, parameters.getDataSymbols());
+            return;
+        }
+
+        BinaryFieldCodec codec = parameters.newBinaryCodec();
+        DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(out)));
+        ByteBuffer chunk = ByteBuffer.allocate(parameters.getDataSymbols() * SHARD_SYMBOLS * blockSize);
+
+        while (readStripe(in, chunk) > 0) {
+            long start = Timing.start(listener);
+            byte[] message = Arrays.copyOf(chunk.array(), chunk.position());
+            byte[][] shards = codec.encode(message);
+            if (listener != CodecListener.NONE) {
+                listener.encoded(message.length, (long) shards.length * shards[0].length / blockSize,
+                        System.nanoTime() - start);
+            }
+
+            os.writeInt(message.length);
+            for (byte[] shard : shards) {
+                os.write(shard);
+            }
+        }
+        os.flush();
+    }
+
+    /**
+     * Streaming version of {@link #encodeStriped(String, int)}: reads the input one stripe at a time and
+     * writes every encoded stripe as soon as it is ready, in the StripedEncoding format. Memory stays bounded
+     * by a window of stripes, one stripe per thread, whatever the input size. The channels are not closed.
+     *
+     * @param in         the message.
+     * @param out        the channel the striped encoding is written to.
+     * @param stripeSize the number of blocks (data symbols) per codeword.
+     */
+    public void encode(ReadableByteChannel in, WritableByteChannel out, int stripeSize) throws IOException {
+        Validate.isTrue(stripeSize > 0, "Stripe size invalid: %d.", stripeSize);
+        requirePrimeField();
+
+        OutputStream os = new BufferedOutputStream(Channels.newOutputStream(out));
+        StripedEncoding.writeHeader(os, stripeSize);
+
+        ByteBuffer stripe = ByteBuffer.allocate(stripeSize * blockSize);
+        OrderedWindow<Encoding, IOException> window =
+                new OrderedWindow<>(pool, (encoding, index) -> StripedEncoding.writeStripe(os, encoding));
+
+        while (readStripe(in, stripe) > 0) {
+            Polynomial poly = new Polynomial(p, stripe.array(), stripe.position(), blockSize);
+            window.submit(() -> encodeSequential(poly));
+        }
+        window.finish();
+        os.flush();
+    }
+
+    private Encoding encodePolynomial(Polynomial poly) {
+        // A systematic codeword only computes its 2S + 1 parity values, too few to split across threads.
+        if (pool == null || isSystematic(poly)) {
+            return encodeSequential(poly);
+        }
+
+        long start = Timing.start(listener);
+        List<BigInteger> points = createPoints(poly).points;
+        BigInteger[] values = new BigInteger[points.size()];
+        pool.invoke(new EvaluationTask(poly, points, values, 0, points.size()));
+
+        return toEncoding(poly, points, Arrays.asList(values), start);
+    }
+
+    private Encoding encodeSequential(Polynomial poly) {
+        long start = Timing.start(listener);
+        EvaluationPoints points = createPoints(poly);
+        List<BigInteger> values = isSystematic(poly) ? encodeSystematic(poly) : poly.evalAll(points.montgomery);
+        return toEncoding(poly, points.points, values, start);
+    }
+
+    private Encoding toEncoding(Polynomial poly, List<BigInteger> points, List<BigInteger> values, long start) {
+        Encoding encoding = new Encoding();
+        encoding.setMessageLength(poly.getByteLength());
+        encoding.setSystematic(parameters.isSystematic());
+        for (int i = 0; i < points.size(); ++i) {
+            encoding.addValue(points.get(i), values.get(i));
+        }
+
+        if (listener != CodecListener.NONE) {
+            listener.encoded(Math.max(poly.getByteLength(), 0), points.size(), System.nanoTime() - start);
+        }
+        return encoding;
+    }
+
+    private boolean isSystematic(Polynomial poly) {
+        return parameters.isSystematic() && poly.getRank() >= 0;
+    }
+
+    /**
+     * The systematic codeword of the message is the polynomial through (0, 0) and through (i, block i) for i
+     * in 1..k, which the decoder finds divided by X. Its values in the points 1..k are the blocks themselves,
+     * copied as they are, and only the 2S + 1 values in the other points are computed, in O(k * S).
+     */
+    private List<BigInteger> encodeSystematic(Polynomial poly) {
+        List<BigInteger> blocks = poly.getCoefficients();
+        List<BigInteger> values = new ArrayList<>(blocks.size() + 2 * S + 1);
+        values.addAll(blocks);
+        values.addAll(systematicBasis(blocks.size()).parity(blocks));
+        return values;
+    }
+
+    private SystematicBasis systematicBasis(int k) {
+        return systematicBases.computeIfAbsent(k, blocks -> new SystematicBasis(p, blocks, blocks + 2 * S + 1));
+    }
+
+    // A block as the polynomial constructors read it: a final partial block is padded with zeroes.
+    private BigInteger toCoefficient(byte[] block) {
+        return new BigInteger(1, block).shiftLeft(Byte.SIZE * (blockSize - block.length));
+    }
+
+    private BigInteger[] powers(BigInteger[] points, int exponent) {
+        BigInteger[] powers = new BigInteger[points.length];
+        for (int i = 0; i < points.length; ++i) {
+            powers[i] = points[i].modPow(BigInteger.valueOf(exponent), p);
+        }
+        return powers;
+    }
+
+    /**
+     * The values in the points of L, the Lagrange basis polynomial of the node u over the nodes 0..k: 1 in
+     * u, 0 in the other nodes and, in a parity point, the value given by {@link SystematicBasis}.
+     */
+    private BigInteger[] lagrangeBasisValues(BigInteger[] points, int k, int u) {
+        SystematicBasis basis = systematicBasis(k);
+        BigInteger[] values = new BigInteger[points.length];
+        for (int i = 0; i < points.length; ++i) {
+            Validate.isTrue(points[i].signum() > 0 && points[i].compareTo(BigInteger.valueOf(basis.n)) <= 0,
+                    "Point invalid: %s.", points[i]);
+            int x = points[i].intValue();
+            if (x <= k) {
+                values[i] = x == u ? BigInteger.ONE : BigInteger.ZERO;
+            } else {
+                values[i] = basis.basisValue(u, x);
+            }
+        }
+        return values;
+    }
+
+    private EvaluationPoints createPoints(Polynomial poly) {
+        return evaluationPoints.computeIfAbsent(poly.getRank() + 2 * S + 2, count -> new EvaluationPoints(p, count));
+    }
+
+    private static int readStripe(ReadableByteChannel in, ByteBuffer stripe) throws IOException {
+        stripe.clear();
+        int read = 0;
+
+        while (stripe.hasRemaining() && read != -1) {
+            read = in.read(stripe);
+        }
+
+        return stripe.position();
+    }
+
+
+    /**
+     * The points 1..n of a codeword, as given to the encoding, and in Montgomery form, as evaluated in.
+     */
+    private static class EvaluationPoints {
+        private final List<BigInteger> points;
+        private final long[][] montgomery;
+
+        EvaluationPoints(BigInteger p, int count) {
+            BigInteger[] points = new BigInteger[count];
+            for (int i = 0; i < count; ++i) {
+                points[i] = BigInteger.valueOf(i + 1);
+            }
+
+            this.points = List.of(points);
+            this.montgomery = MontgomeryField.of(p).toMontgomery(points);
+        }
+    }
+
+    /**
+     * The Lagrange basis over the nodes 0..k of a systematic codeword of n points, in its parity points
+     * k + 1..n. The basis polynomial of the node u is L(x) = F(x) * w / (x - u), with F(x) = x (x - 1) ... (x - k)
+     * and the weight w = 1 / F'(u) = (-1)^(k - u) / (u! (k - u)!). The weights, the inverses of 1..n - 1 and
+     * F(x) = F(x - 1) * x / (x - k - 1) all come from the factorials and a single modular inversion.
+     */
+    private static final class SystematicBasis {
+        private final MontgomeryField field;
+        private final int k;
+        private final int n;
+        // w for u in 1..k, at u - 1.
+        private final long[][] weights;
+        // 1 / j for j in 1..n - 1, at j - 1.
+        private final long[][] inverses;
+        // F(x) for x in k + 1..n, at x - k - 1.
+        private final long[][] master;
+
+        SystematicBasis(BigInteger p, int k, int n) {
+            this.field = MontgomeryField.of(p);
+            this.k = k;
+            this.n = n;
+
+            BigInteger[] factorials = new BigInteger[n];
+            factorials[0] = BigInteger.ONE;
+            for (int i = 1; i < n; ++i) {
+                factorials[i] = factorials[i - 1].multiply(BigInteger.valueOf(i)).mod(p);
+            }
+            BigInteger[] inverseFactorials = new BigInteger[n];
+            inverseFactorials[n - 1] = factorials[n - 1].modInverse(p);
+            for (int i = n - 1; i > 0; --i) {
+                inverseFactorials[i - 1] = inverseFactorials[i].multiply(BigInteger.valueOf(i)).mod(p);
+            }
+
+            BigInteger[] inverses = new BigInteger[n - 1];
+            for (int j = 1; j < n; ++j) {
+                inverses[j - 1] = inverseFactorials[j].multiply(factorials[j - 1]).mod(p);
+            }
+
+            BigInteger[] weights = new BigInteger[k];
+            for (int u = 1; u <= k; ++u) {
+                BigInteger weight = inverseFactorials[u].multiply(inverseFactorials[k - u]).mod(p);
+                weights[u - 1] = (k - u) % 2 == 1 ? p.subtract(weight).mod(p) : weight;
+            }
+
+            BigInteger[] master = new BigInteger[n - k];
+            master[0] = factorials[k].multiply(BigInteger.valueOf(k + 1)).mod(p);
+            for (int x = k + 2; x <= n; ++x) {
+                master[x - k - 1] = master[x - k - 2].multiply(BigInteger.valueOf(x)).multiply(inverses[x - k - 2]).mod(p);
+            }
+
+            this.weights = field.toMontgomery(weights);
+            this.inverses = field.toMontgomery(inverses);
+            this.master = field.toMontgomery(master);
+        }
+
+        /**
+         * @param blocks the k values in the points 1..k.
+         * @return the values in the points k + 1..n of the polynomial through them and through (0, 0).
+         */
+        List<BigInteger> parity(List<BigInteger> blocks) {
+            long[][] weighted = new long[k][];
+            long[] scratch = field.newScratch();
+            for (int u = 1; u <= k; ++u) {
+                weighted[u - 1] = field.newElement();
+                field.multiply(field.toMontgomery(blocks.get(u - 1)), weights[u - 1], weighted[u - 1], scratch);
+            }
+
+            List<BigInteger> values = new ArrayList<>(n - k);
+            long[] term = field.newElement();
+            MontgomeryField.Accumulator sum = field.newAccumulator();
+            for (int x = k + 1; x <= n; ++x) {
+                sum.setZero();
+                for (int u = 1; u <= k; ++u) {
+                    field.multiply(weighted[u - 1], inverses[x - u - 1], term, scratch);
+                    sum.add(term);
+                }
+                values.add(sum.multiply(master[x - k - 1]).toBigInteger());
+            }
+            return values;
+        }
+
+        /**
+         * @return L(x) for the node u in 1..k and the parity point x.
+         */
+        BigInteger basisValue(int u, int x) {
+            return field.newAccumulator().set(master[x - k - 1]).multiply(weights[u - 1])
+                    .multiply(inverses[x - u - 1]).toBigInteger();
+        }
+    }
+
+    /**
+     * Evaluates the polynomial in the points [from, to), halving the range until it is small enough to be
+     * evaluated by one thread. Every value is written at the index of its point, so the order does not
+     * depend on the scheduling.
+     */
+    // Serializable only as every ForkJoinTask is; tasks are never serialized.
+    @SuppressWarnings("serial")
+    private static class EvaluationTask extends RecursiveAction {
+        private final Polynomial poly;
+        private final List<BigInteger> points;
+        private final BigInteger[] values;
+        private final int from;
+        private final int to;
+
+        EvaluationTask(Polynomial poly, List<BigInteger> points, BigInteger[] values, int from, int to) {
+            this.poly = poly;
+            this.points = points;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= POINTS_PER_TASK) {
+                List<BigInteger> computed = poly.evalAll(points.subList(from, to));
+                for (int i = from; i < to; ++i) {
+                    values[i] = computed.get(i - from);
+                }
+                return;
+            }
+
+            int middle = (from + to) / 2;
+            invokeAll(new EvaluationTask(poly, points, values, from, middle),
+                    new EvaluationTask(poly, points, values, middle, to));
+        }
+    }
+
+    private void requirePrimeField() {
+        Validate.isTrue(!parameters.isBinaryField(), "Polynomial encoding needs a prime field code.");
+    }
+
+}
@@ -0,0 +1,336 @@
+package Main;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Created by Cip on 04-Mar-17.
+ */
+public class Encoding {
+    private static final String DELIMITER = "\n";
+    // Binary format: header, values as unsigned big-endian symbols of a fixed width, payload checksum.
+    private static final int BINARY_MAGIC = 0x52534543;
+    private static final byte BINARY_VERSION = 3;
+    // magic, version, symbol width, value count, first point, message length (added in version 2), flags (version 3)
+    private static final int BINARY_HEADER_BYTES = Integer.BYTES + 2 + Integer.BYTES + 2 * Long.BYTES + 1;
+    private static final int SYSTEMATIC_FLAG = 1;
+    private static final String LENGTH_HEADER = "#length";
+    private static final String SYSTEMATIC_HEADER = "#systematic";
+    private static final int CHECKSUM_BYTES = Integer.BYTES;
+
+    private List<PointValuePair> polynomialValues;
+    private boolean checksumValid = true;
+    private long messageLength = -1;
+    private boolean systematic;
+
+    public Encoding() {
+        this.polynomialValues = new ArrayList<>();
+    }
+
+    public void addValue(BigInteger point, BigInteger value) {
+        polynomialValues.add(new PointValuePair(point, value));
+    }
+
+    public void addValue(PointValuePair pair) {
+        polynomialValues.add(pair);
+    }
+
+    public Encoding createPartialEncoding(int partialSize) {
+        Validate.isTrue(0 <= partialSize && partialSize < polynomialValues.size(), "Partial size invalid: %d.", partialSize);
+
+        Collections.shuffle(polynomialValues);
+        Encoding partial = new Encoding();
+        partial.polynomialValues = polynomialValues.subList(0, partialSize);
+
+        return partial;
+    }
+
+    /**
+     * Unlike {@link #createPartialEncoding(int)}, leaves this encoding unchanged, so concurrent threads can
+     * take partial encodings of it.
+     *
+     * @param indices     the indices of the values to keep; only the first {@code partialSize} are used.
+     * @param partialSize the number of values to keep.
+     */
+    public Encoding createPartialEncoding(int[] indices, int partialSize) {
+        Validate.isTrue(0 <= partialSize && partialSize <= indices.length, "Partial size invalid: %d.", partialSize);
+
+        Encoding partial = new Encoding();
+        for (int i = 0; i < partialSize; ++i) {
+            partial.addValue(getValue(indices[i]));
+        }
+
+        return partial;
+    }
+
+    public PointValuePair getValue(int index) {
+        Validate.isTrue(0 <= index && index < polynomialValues.size(), "Index out of bounds: %d.", index);
+
+        return polynomialValues.get(index);
+    }
+
+    /**
+     * Replaces the value at the index, keeping its point. The pair is replaced rather than changed, so
+     * partial encodings sharing it keep the old value.
+     */
+    public void setValue(int index, BigInteger value) {
+        Validate.isTrue(0 <= index && index < polynomialValues.size(), "Index out of bounds: %d.", index);
+
+        polynomialValues.set(index, new PointValuePair(polynomialValues.get(index).getPoint(), value));
+    }
+
+    /**
+     * @return a snapshot of the points, in order, for loops that index them directly instead of calling the
+     * checked {@link #getValue(int)} for every access.
+     */
+    public BigInteger[] getPoints() {
+        BigInteger[] points = new BigInteger[polynomialValues.size()];
+        for (int i = 0; i < points.length; ++i) {
+            points[i] = polynomialValues.get(i).getPoint();
+        }
+        return points;
+    }
+
+    /**
+     * @return a snapshot of the values, in the order of {@link #getPoints()}.
+     */
+    public BigInteger[] getValues() {
+        BigInteger[] values = new BigInteger[polynomialValues.size()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = polynomialValues.get(i).getValue();
+        }
+        return values;
+    }
+
+    public static Encoding fromFile(String fileName) throws IOException {
+        Encoding encoding = new Encoding();
+
+        try (BufferedReader is = new BufferedReader(new FileReader(fileName))) {
+            String pair = is.readLine();
+            if (pair != null && pair.startsWith(LENGTH_HEADER + PointValuePair.DELIMITER)) {
+                encoding.messageLength = Long.parseLong(pair.substring(LENGTH_HEADER.length() + PointValuePair.DELIMITER.length()));
+                pair = is.readLine();
+            }
+            if (pair != null && pair.equals(SYSTEMATIC_HEADER)) {
+                encoding.systematic = true;
+                pair = is.readLine();
+            }
+
+            while (pair != null) {
+                encoding.addValue(PointValuePair.deserialize(pair));
+                pair = is.readLine();
+            }
+        }
+
+        return encoding;
+    }
+
+    /**
+     * Reads an encoding written by {@link #toBinaryFile(String)}, mapping the file in memory. A header
+     * with a wrong checksum makes the file unreadable; wrong values only clear {@link #isChecksumValid()},
+     * since correcting them is the decoder's job.
+     */
+    public static Encoding fromBinaryFile(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            Validate.isTrue(channel.size() <= Integer.MAX_VALUE, "Binary encoding too large: %d bytes.", channel.size());
+            return fromByteBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    static Encoding fromByteBuffer(ByteBuffer buffer) {
+        Validate.isTrue(buffer.remaining() >= BINARY_HEADER_BYTES + 2 * CHECKSUM_BYTES, "Binary encoding truncated.");
+
+        int start = buffer.position();
+        int magic = buffer.getInt();
+        byte version = buffer.get();
+        int symbolSize = buffer.get() & 0xFF;
+        int count = buffer.getInt();
+        long firstPoint = buffer.getLong();
+        Validate.isTrue(magic == BINARY_MAGIC && 1 <= version && version <= BINARY_VERSION, "Not a binary encoding.");
+        long messageLength = version >= 2 ? buffer.getLong() : -1;
+        int flags = version >= 3 ? buffer.get() : 0;
+        int headerBytes = buffer.position() - start;
+        Validate.isTrue(buffer.getInt() == checksum(buffer, start, headerBytes), "Binary header corrupted.");
+        Validate.isTrue(count >= 0 && buffer.remaining() == (long) count * symbolSize + CHECKSUM_BYTES,
+                "Binary encoding length does not match its header.");
+
+        Encoding encoding = new Encoding();
+        int valuesStart = buffer.position();
+        byte[] symbol = new byte[symbolSize];
+        for (int i = 0; i < count; ++i) {
+            buffer.get(symbol);
+            encoding.addValue(BigInteger.valueOf(firstPoint + i), new BigInteger(1, symbol));
+        }
+        encoding.checksumValid = buffer.getInt() == checksum(buffer, valuesStart, count * symbolSize);
+        encoding.messageLength = messageLength;
+        encoding.systematic = (flags & SYSTEMATIC_FLAG) != 0;
+
+        return encoding;
+    }
+
+    /**
+     * Writes the encoding in the compact binary format: the points must be consecutive, so only the first
+     * one is stored, and every value takes the width of the largest one.
+     */
+    public void toBinaryFile(String filename) throws IOException {
+        ByteBuffer buffer = toByteBuffer();
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    ByteBuffer toByteBuffer() {
+        long firstPoint = polynomialValues.isEmpty() ? 1 : polynomialValues.get(0).getPoint().longValueExact();
+        int symbolSize = 1;
+        for (int i = 0; i < polynomialValues.size(); ++i) {
+            PointValuePair pair = polynomialValues.get(i);
+            Validate.isTrue(pair.getPoint().equals(BigInteger.valueOf(firstPoint + i)),
+                    "Binary format needs consecutive points, found %s at index %d.", pair.getPoint(), i);
+            Validate.isTrue(pair.getValue().signum() >= 0, "Binary format needs non-negative values.");
+            symbolSize = Math.max(symbolSize, (pair.getValue().bitLength() + 7) / 8);
+        }
+        Validate.isTrue(symbolSize <= 0xFF, "Values too large for the binary format.");
+
+        int payload = polynomialValues.size() * symbolSize;
+        ByteBuffer buffer = ByteBuffer.allocate(BINARY_HEADER_BYTES + CHECKSUM_BYTES + payload + CHECKSUM_BYTES);
+        buffer.putInt(BINARY_MAGIC);
+        buffer.put(BINARY_VERSION);
+        buffer.put((byte) symbolSize);
+        buffer.putInt(polynomialValues.size());
+        buffer.putLong(firstPoint);
+        buffer.putLong(messageLength);
+        buffer.put((byte) (systematic ? SYSTEMATIC_FLAG : 0));
+        buffer.putInt(checksum(buffer, 0, BINARY_HEADER_BYTES));
+
+        byte[] symbol = new byte[symbolSize];
+        for (PointValuePair pair : polynomialValues) {
+            // toByteArray() may prepend a sign byte, which does not fit in the symbol.
+            byte[] rep = pair.getValue().toByteArray();
+            int length = Math.min(rep.length, symbolSize);
+            Arrays.fill(symbol, (byte) 0);
+            System.arraycopy(rep, rep.length - length, symbol, symbolSize - length, length);
+            buffer.put(symbol);
+        }
+        buffer.putInt(checksum(buffer, BINARY_HEADER_BYTES + CHECKSUM_BYTES, payload));
+
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer region = buffer.duplicate();
+        region.limit(offset + length).position(offset);
+        crc.update(region);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * @return false if this encoding was read from a binary file whose values do not match their checksum.
+     */
+    public boolean isChecksumValid() {
+        return checksumValid;
+    }
+
+    /**
+     * @return the number of bytes of the encoded message, or -1 if unknown. Blocks are padded, so only
+     * this length lets the decoder drop the padding of the final block.
+     */
+    public long getMessageLength() {
+        return messageLength;
+    }
+
+    public void setMessageLength(long messageLength) {
+        this.messageLength = messageLength;
+    }
+
+    /**
+     * @return true if the values in the first k points are the message blocks themselves, and only the
+     * other values are parity.
+     */
+    public boolean isSystematic() {
+        return systematic;
+    }
+
+    public void setSystematic(boolean systematic) {
+        this.systematic = systematic;
+    }
+
+    public int size() {
+        return polynomialValues.size();
+    }
+
+    public void toFile(String filename) throws IOException {
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(filename))) {
+            if (messageLength >= 0) {
+                os.write((LENGTH_HEADER + PointValuePair.DELIMITER + messageLength + DELIMITER).getBytes());
+            }
+            if (systematic) {
+                os.write((SYSTEMATIC_HEADER + DELIMITER).getBytes());
+            }
+            writeTo(os);
+        }
+    }
+
+    static Encoding readFrom(BufferedReader is, int count) throws IOException {
+        Encoding encoding = new Encoding();
+
+        for (int i = 0; i < count; ++i) {
+            String pair = is.readLine();
+            Validate.isTrue(pair != null, "Encoding truncated after %d values.", i);
+            encoding.addValue(PointValuePair.deserialize(pair));
+        }
+
+        return encoding;
+    }
+
+    void writeTo(OutputStream os) throws IOException {
+        for (PointValuePair polynomialValue : polynomialValues) {
+            os.write(polynomialValue.toString().getBytes());
+            os.write(DELIMITER.getBytes());
+        }
+    }
+
+    public static class PointValuePair {
+        private static final String DELIMITER = "\t:\t";
+
+        private BigInteger point;
+        private BigInteger value;
+
+        public PointValuePair(BigInteger point, BigInteger value) {
+            this.point = point;
+            this.value = value;
+        }
+
+        private static PointValuePair deserialize(String serializedPair) {
+            String[] info = serializedPair.split(DELIMITER);
+            Validate.isTrue(info.length == 2, "Point value pair wrong format.");
+            return new PointValuePair(new BigInteger(info[0]), new BigInteger(info[1]));
+        }
+
+        public BigInteger getPoint() {
+            return point;
+        }
+
+        public BigInteger getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return point + DELIMITER + value;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package Main;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What Lagrange interpolation through a set of points needs besides the values: the master polynomial
+ * M(X) = (X - x_1)(X - x_2)...(X - x_k) and the barycentric weights w_i = 1 / M'(x_i). Both depend only on p
+ * and the points, and the codewords of one code are always evaluated in the same points 1..n, so the most
+ * recently used point sets are kept in a bounded LRU cache instead of being rebuilt for every decode.
+ * <p>
+ * Instances are immutable once built and safe to share between threads.
+ */
+final class LagrangeWeights {
+    private static final int CACHE_SIZE = 64;
+    private static final Map<Key, LagrangeWeights> CACHE = new LinkedHashMap<Key, LagrangeWeights>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, LagrangeWeights> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final MontgomeryField field;
+    private final long[][] points;
+    private final long[][] master;
+    private final long[][] weights;
+
+    private LagrangeWeights(MontgomeryField field, BigInteger[] points) {
+        int k = points.length;
+        this.field = field;
+        this.points = field.toMontgomery(points);
+
+        this.master = masterPolynomial(this.points, 0, k, field);
+        long[][] derivative = new long[k][];
+        for (int i = 0; i < k; ++i) {
+            derivative[i] = field.newElement();
+            field.multiply(master[i], field.toMontgomery(BigInteger.valueOf(k - i)), derivative[i], field.newScratch());
+        }
+
+        this.weights = new long[k][];
+        MontgomeryField.Accumulator weight = field.newAccumulator();
+        for (int i = 0; i < k; ++i) {
+            weight.set(derivative[0]);
+            for (int t = 1; t < k; ++t) {
+                weight.multiplyAdd(this.points[i], derivative[t]);
+            }
+            weights[i] = weight.get().clone();
+        }
+        field.batchInverse(weights, weights);
+    }
+
+    /**
+     * @return the weights of the points of the encoding, from the cache when the same points were seen recently.
+     */
+    static LagrangeWeights of(Encoding encoding, BigInteger p) {
+        return of(encoding.getPoints(), p);
+    }
+
+    /**
+     * @param points the points, kept by the cache, so not to be changed afterwards.
+     */
+    static LagrangeWeights of(BigInteger[] points, BigInteger p) {
+        Key key = new Key(p, points);
+        synchronized (CACHE) {
+            LagrangeWeights cached = CACHE.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // Built outside the lock, so a miss does not hold up the decoders hitting the cache.
+        LagrangeWeights weights = new LagrangeWeights(MontgomeryField.of(p), points);
+        synchronized (CACHE) {
+            LagrangeWeights cached = CACHE.putIfAbsent(key, weights);
+            return cached == null ? weights : cached;
+        }
+    }
+
+    MontgomeryField getField() {
+        return field;
+    }
+
+    /**
+     * @return the points, in Montgomery form.
+     */
+    long[][] getPoints() {
+        return points;
+    }
+
+    /**
+     * @return the coefficients of M, in Montgomery form, starting with the highest degree.
+     */
+    long[][] getMaster() {
+        return master;
+    }
+
+    /**
+     * @return the weight 1 / M'(x_i) of every point, in Montgomery form.
+     */
+    long[][] getWeights() {
+        return weights;
+    }
+
+    /**
+     * The product of all the differences (x_v - x_u), u != v, is the product of all M'(x_u), since each pair
+     * contributes the two signs of one difference and k(k - 1) is even. Its inverse is then the product of the
+     * weights.
+     */
+    BigInteger getAllDifferencesInverse() {
+        MontgomeryField.Accumulator product = field.newAccumulator().setOne();
+        for (long[] weight : weights) {
+            product.multiply(weight);
+        }
+        return product.toBigInteger();
+    }
+
+    /**
+     * Builds the product of (X - points[i]) for i in [from, to), multiplying the two halves of the range
+     * recursively. The product over no points is the constant 1.
+     *
+     * @return the coefficients of the product, starting with the highest degree.
+     */
+    private static long[][] masterPolynomial(long[][] points, int from, int to, MontgomeryField field) {
+        if (to == from) {
+            long[][] one = {field.newElement()};
+            field.setOne(one[0]);
+            return one;
+        }
+        if (to - from == 1) {
+            long[][] binomial = {field.newElement(), field.newElement()};
+            field.setOne(binomial[0]);
+            field.subtract(binomial[1], points[from], binomial[1]);
+            return binomial;
+        }
+
+        int middle = (from + to) / 2;
+        long[][] left = masterPolynomial(points, from, middle, field);
+        long[][] right = masterPolynomial(points, middle, to, field);
+        long[][] product = new long[left.length + right.length - 1][];
+        for (int t = 0; t < product.length; ++t) {
+            product[t] = field.newElement();
+        }
+
+        long[] term = field.newElement();
+        long[] scratch = field.newScratch();
+        for (int a = 0; a < left.length; ++a) {
+            for (int b = 0; b < right.length; ++b) {
+                field.multiply(left[a], right[b], term, scratch);
+                field.add(product[a + b], term, product[a + b]);
+            }
+        }
+
+        return product;
+    }
+
+    private static final class Key {
+        private final BigInteger p;
+        private final BigInteger[] points;
+        private final int hash;
+
+        Key(BigInteger p, BigInteger[] points) {
+            this.p = p;
+            this.points = points;
+            this.hash = 31 * p.hashCode() + Arrays.hashCode(points);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return p.equals(other.p) && Arrays.equals(points, other.points);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package Main;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-width arithmetic modulo an odd prime p, on elements kept in Montgomery form (a * R mod p, with
+ * R = 2^(64 * limbs)) as little-endian {@code long[]} limbs. Sums and products are written into arrays the
+ * caller owns, so loops over elements do not allocate.
+ */
+public class MontgomeryField {
+    private static final Map<BigInteger, MontgomeryField> FIELDS = new ConcurrentHashMap<>();
+
+    private final BigInteger p;
+    private final int limbs;
+    private final long[] modulus;
+    // -p^(-1) mod 2^64
+    private final long modulusInverse;
+    // R^2 mod p, used to bring values into Montgomery form.
+    private final long[] rSquared;
+    private final long[] one;
+
+    public MontgomeryField(BigInteger p) {
+        Validate.isTrue(p.signum() > 0 && p.testBit(0), "Montgomery modulus must be odd.");
+
+        this.p = p;
+        this.limbs = (p.bitLength() + 63) / 64;
+        this.modulus = toLimbs(p);
+        this.modulusInverse = BigInteger.ONE.shiftLeft(64).subtract(p.modInverse(BigInteger.ONE.shiftLeft(64))).longValue();
+        this.rSquared = toLimbs(BigInteger.ONE.shiftLeft(128 * limbs).mod(p));
+        this.one = toMontgomery(BigInteger.ONE);
+    }
+
+    /**
+     * @return the shared instance for the prime p.
+     */
+    public static MontgomeryField of(BigInteger p) {
+        return FIELDS.computeIfAbsent(p, MontgomeryField::new);
+    }
+
+    public BigInteger getP() {
+        return p;
+    }
+
+    public long[] newElement() {
+        return new long[limbs];
+    }
+
+    public long[] newScratch() {
+        return new long[limbs + 2];
+    }
+
+    public Accumulator newAccumulator() {
+        return new Accumulator();
+    }
+
+    public long[] toMontgomery(BigInteger value) {
+        long[] result = toLimbs(value.mod(p));
+        multiply(result, rSquared, result, newScratch());
+        return result;
+    }
+
+    public long[][] toMontgomery(BigInteger[] values) {
+        long[][] result = new long[values.length][];
+        for (int i = 0; i < values.length; ++i) {
+            result[i] = toMontgomery(values[i]);
+        }
+        return result;
+    }
+
+    public BigInteger toBigInteger(long[] a) {
+        long[] result = newElement();
+        long[] unit = newElement();
+        unit[0] = 1;
+        multiply(a, unit, result, newScratch());
+
+        byte[] bytes = new byte[limbs * Long.BYTES + 1];
+        for (int i = 0; i < limbs; ++i) {
+            for (int b = 0; b < Long.BYTES; ++b) {
+                bytes[bytes.length - 1 - i * Long.BYTES - b] = (byte) (result[i] >>> (8 * b));
+            }
+        }
+        return new BigInteger(bytes);
+    }
+
+    public void setOne(long[] result) {
+        System.arraycopy(one, 0, result, 0, limbs);
+    }
+
+    public boolean isZero(long[] a) {
+        for (int i = 0; i < limbs; ++i) {
+            if (a[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * result = a + b mod p. The result may be one of the operands.
+     */
+    public void add(long[] a, long[] b, long[] result) {
+        long carry = 0;
+        for (int i = 0; i < limbs; ++i) {
+            long sum = a[i] + b[i];
+            long carryOut = Long.compareUnsigned(sum, a[i]) < 0 ? 1 : 0;
+            long total = sum + carry;
+            carryOut += Long.compareUnsigned(total, sum) < 0 ? 1 : 0;
+            result[i] = total;
+            carry = carryOut;
+        }
+
+        if (carry != 0 || compareToModulus(result) >= 0) {
+            subtractModulus(result);
+        }
+    }
+
+    /**
+     * result = a - b mod p. The result may be one of the operands.
+     */
+    public void subtract(long[] a, long[] b, long[] result) {
+        long borrow = 0;
+        for (int i = 0; i < limbs; ++i) {
+            long difference = a[i] - b[i];
+            long borrowOut = Long.compareUnsigned(a[i], b[i]) < 0 ? 1 : 0;
+            long total = difference - borrow;
+            borrowOut += Long.compareUnsigned(difference, borrow) < 0 ? 1 : 0;
+            result[i] = total;
+            borrow = borrowOut;
+        }
+
+        if (borrow != 0) {
+            long carry = 0;
+            for (int i = 0; i < limbs; ++i) {
+                long sum = result[i] + modulus[i];
+                long carryOut = Long.compareUnsigned(sum, result[i]) < 0 ? 1 : 0;
+                long total = sum + carry;
+                carryOut += Long.compareUnsigned(total, sum) < 0 ? 1 : 0;
+                result[i] = total;
+                carry = carryOut;
+            }
+        }
+    }
+
+    /**
+     * result = a * b / R mod p, with the CIOS method. The result may be one of the operands.
+     *
+     * @param scratch an array of at least limbs + 2 longs, see {@link #newScratch()}.
+     */
+    public void multiply(long[] a, long[] b, long[] result, long[] scratch) {
+        long[] t = scratch;
+        for (int i = 0; i < limbs + 2; ++i) {
+            t[i] = 0;
+        }
+
+        for (int i = 0; i < limbs; ++i) {
+            long bi = b[i];
+            long carry = 0;
+            for (int j = 0; j < limbs; ++j) {
+                long low = a[j] * bi;
+                long high = unsignedMultiplyHigh(a[j], bi);
+                low += t[j];
+                high += Long.compareUnsigned(low, t[j]) < 0 ? 1 : 0;
+                long sum = low + carry;
+                high += Long.compareUnsigned(sum, low) < 0 ? 1 : 0;
+                t[j] = sum;
+                carry = high;
+            }
+            long sum = t[limbs] + carry;
+            t[limbs + 1] = Long.compareUnsigned(sum, carry) < 0 ? 1 : 0;
+            t[limbs] = sum;
+
+            long m = t[0] * modulusInverse;
+            long low = m * modulus[0];
+            carry = unsignedMultiplyHigh(m, modulus[0]);
+            carry += Long.compareUnsigned(low + t[0], low) < 0 ? 1 : 0;
+            for (int j = 1; j < limbs; ++j) {
+                low = m * modulus[j];
+                long high = unsignedMultiplyHigh(m, modulus[j]);
+                low += t[j];
+                high += Long.compareUnsigned(low, t[j]) < 0 ? 1 : 0;
+                sum = low + carry;
+                high += Long.compareUnsigned(sum, low) < 0 ? 1 : 0;
+                t[j - 1] = sum;
+                carry = high;
+            }
+            sum = t[limbs] + carry;
+            t[limbs - 1] = sum;
+            t[limbs] = t[limbs + 1] + (Long.compareUnsigned(sum, carry) < 0 ? 1 : 0);
+        }
+
+        System.arraycopy(t, 0, result, 0, limbs);
+        if (t[limbs] != 0 || compareToModulus(result) >= 0) {
+            subtractModulus(result);
+        }
+    }
+
+    /**
+     * Inverts all the values with a single modular inversion (Montgomery's trick): the prefix products
+     * a_0 a_1 ... a_i are accumulated, their total is inverted once, and walking back every inverse is
+     * peeled off with two multiplications, for 3(k - 1) multiplications in total.
+     *
+     * @param values the non-zero values, in Montgomery form.
+     * @param result the arrays the inverses are written to, in Montgomery form; may be the values themselves.
+     */
+    public void batchInverse(long[][] values, long[][] result) {
+        int k = values.length;
+        if (k == 0) {
+            return;
+        }
+
+        long[][] prefix = new long[k][];
+        long[] scratch = newScratch();
+        prefix[0] = values[0].clone();
+        for (int i = 1; i < k; ++i) {
+            prefix[i] = newElement();
+            multiply(prefix[i - 1], values[i], prefix[i], scratch);
+        }
+        Validate.isTrue(!isZero(prefix[k - 1]), "Zero has no inverse.");
+
+        long[] inverse = toMontgomery(toBigInteger(prefix[k - 1]).modInverse(p));
+        long[] value = newElement();
+        for (int i = k - 1; i > 0; --i) {
+            // inverse holds (a_0 ... a_i)^(-1); values[i] is read before result[i] may overwrite it.
+            System.arraycopy(values[i], 0, value, 0, limbs);
+            multiply(inverse, prefix[i - 1], result[i], scratch);
+            multiply(inverse, value, inverse, scratch);
+        }
+        System.arraycopy(inverse, 0, result[0], 0, limbs);
+    }
+
+    private int compareToModulus(long[] a) {
+        for (int i = limbs - 1; i >= 0; --i) {
+            if (a[i] != modulus[i]) {
+                return Long.compareUnsigned(a[i], modulus[i]);
+            }
+        }
+        return 0;
+    }
+
+    private void subtractModulus(long[] a) {
+        long borrow = 0;
+        for (int i = 0; i < limbs; ++i) {
+            long difference = a[i] - modulus[i];
+            long borrowOut = Long.compareUnsigned(a[i], modulus[i]) < 0 ? 1 : 0;
+            long total = difference - borrow;
+            borrowOut += Long.compareUnsigned(difference, borrow) < 0 ? 1 : 0;
+            a[i] = total;
+            borrow = borrowOut;
+        }
+    }
+
+    private long[] toLimbs(BigInteger value) {
+        long[] result = new long[limbs];
+        for (int i = 0; i < limbs; ++i) {
+            result[i] = value.shiftRight(64 * i).longValue();
+        }
+        return result;
+    }
+
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    /**
+     * A mutable element with its own scratch space, for running sums and products.
+     */
+    public class Accumulator {
+        private final long[] value = newElement();
+        private final long[] scratch = newScratch();
+        private final long[] difference = newElement();
+
+        public Accumulator setOne() {
+            MontgomeryField.this.setOne(value);
+            return this;
+        }
+
+        public Accumulator setZero() {
+            for (int i = 0; i < limbs; ++i) {
+                value[i] = 0;
+            }
+            return this;
+        }
+
+        public Accumulator set(long[] a) {
+            System.arraycopy(a, 0, value, 0, limbs);
+            return this;
+        }
+
+        public Accumulator add(long[] a) {
+            MontgomeryField.this.add(value, a, value);
+            return this;
+        }
+
+        public Accumulator multiply(long[] a) {
+            MontgomeryField.this.multiply(value, a, value, scratch);
+            return this;
+        }
+
+        /**
+         * value = value * a + b, one step of Horner's scheme.
+         */
+        public Accumulator multiplyAdd(long[] a, long[] b) {
+            MontgomeryField.this.multiply(value, a, value, scratch);
+            MontgomeryField.this.add(value, b, value);
+            return this;
+        }
+
+        /**
+         * value = value * (a - b), without allocating the difference.
+         */
+        public Accumulator multiplyDifference(long[] a, long[] b) {
+            MontgomeryField.this.subtract(a, b, difference);
+            MontgomeryField.this.multiply(value, difference, value, scratch);
+            return this;
+        }
+
+        public long[] get() {
+            return value;
+        }
+
+        public BigInteger toBigInteger() {
+            return MontgomeryField.this.toBigInteger(value);
+        }
+    }
+}
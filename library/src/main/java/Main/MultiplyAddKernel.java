@@ -0,0 +1,44 @@
+package Main;
+
+/**
+ * The inner loop of {@link BinaryExtensionField#multiplyAdd(int, byte[], byte[], int, int)} over GF(2^8),
+ * dst[i] += c * src[i], with the product of c split as c * x = c * (x & 0xF) + c * (x & 0xF0): two lookups
+ * in 16-entry tables, which SIMD byte shuffles do for a whole vector at once.
+ * <p>
+ * The Vector API implementation is compiled from src/main/java-vector by the "vector" profile and only
+ * loads when the JVM runs with --add-modules jdk.incubator.vector; otherwise the scalar loop of the field
+ * does all the work.
+ */
+interface MultiplyAddKernel {
+    // The implementation loaded when it is present and its module is available.
+    String VECTOR_KERNEL = "Main.VectorMultiplyAddKernel";
+
+    // Does nothing, leaving the whole region to the scalar loop.
+    MultiplyAddKernel SCALAR = (tables, tableOffset, src, dst, offset, end) -> offset;
+
+    /**
+     * Processes a prefix of the region [offset, end), for example every full vector of it.
+     *
+     * @param tables      the products of c with 0..15 followed by those with 0x00, 0x10, ..., 0xF0.
+     * @param tableOffset the first product of c in {@code tables}.
+     * @return where the caller continues, {@code end} if the whole region was processed.
+     */
+    int multiplyAdd(byte[] tables, int tableOffset, byte[] src, byte[] dst, int offset, int end);
+
+    /**
+     * @return the Vector API kernel if it can run, otherwise {@link #SCALAR}. Setting the system property
+     * reedsolomon.scalar to true forces the scalar kernel.
+     */
+    static MultiplyAddKernel load() {
+        if (Boolean.getBoolean("reedsolomon.scalar")) {
+            return SCALAR;
+        }
+
+        try {
+            return (MultiplyAddKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | UnsupportedOperationException e) {
+            // Not compiled in, the incubator module is not resolved, or the vectors are too short.
+            return SCALAR;
+        }
+    }
+}
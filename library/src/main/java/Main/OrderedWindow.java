@@ -0,0 +1,60 @@
+package Main;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks on a pool ahead of the calling thread and hands their results, with their indices, to a
+ * consumer on the calling thread in the order the tasks were submitted. At most one task per thread of the
+ * pool runs ahead of the consumer, so memory stays bounded whatever the number of tasks. Without a pool,
+ * every task runs on the calling thread when it is submitted.
+ *
+ * @param <T> the result of a task.
+ * @param <E> the exception the consumer may throw.
+ */
+final class OrderedWindow<T, E extends Exception> {
+    private final ForkJoinPool pool;
+    private final ResultConsumer<T, E> consumer;
+    private final Deque<ForkJoinTask<T>> window = new ArrayDeque<>();
+    private int next;
+
+    /**
+     * @param pool     the pool, or null to run the tasks on the calling thread.
+     * @param consumer receives every result, on the calling thread.
+     */
+    OrderedWindow(ForkJoinPool pool, ResultConsumer<T, E> consumer) {
+        this.pool = pool;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Submits the task, first handing the oldest result to the consumer if the window is full.
+     */
+    void submit(Supplier<T> task) throws E {
+        if (pool == null) {
+            consumer.accept(task.get(), next++);
+            return;
+        }
+
+        window.addLast(pool.submit(task::get));
+        if (window.size() >= pool.getParallelism()) {
+            consumer.accept(window.removeFirst().join(), next++);
+        }
+    }
+
+    /**
+     * Waits for the tasks still running and hands their results to the consumer.
+     */
+    void finish() throws E {
+        while (!window.isEmpty()) {
+            consumer.accept(window.removeFirst().join(), next++);
+        }
+    }
+
+    interface ResultConsumer<T, E extends Exception> {
+        void accept(T result, int index) throws E;
+    }
+}
@@ -0,0 +1,557 @@
+package Main;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by Cip on 03-Mar-17.
+ */
+public class Polynomial {
+    private static final byte ZERO = (byte) 0b00000000;
+
+    private BigInteger p;
+    private List<BigInteger> coefficients;
+    private long byteLength = -1;
+    // The coefficients in Montgomery form, built by the first evaluation and dropped on every change.
+    private volatile long[][] montgomeryCoefficients;
+
+    public Polynomial(BigInteger p, String filename, int block_size) throws IOException {
+        this.p = p;
+        initializeCoefficientsFromFile(filename, block_size);
+    }
+
+    /**
+     * Builds the polynomial of one stripe, taking one coefficient from every block of the first {@code length}
+     * bytes of {@code data}. A final partial block is padded with zeroes, as for the file constructor.
+     */
+    public Polynomial(BigInteger p, byte[] data, int length, int block_size) {
+        this(p, data, 0, length, block_size);
+    }
+
+    /**
+     * Same as {@link #Polynomial(BigInteger, byte[], int, int)} for the {@code length} bytes of {@code data}
+     * starting at {@code offset}, so that a stripe is read in place from a larger buffer.
+     */
+    public Polynomial(BigInteger p, byte[] data, int offset, int length, int block_size) {
+        this.p = p;
+        this.coefficients = new ArrayList<>((length + block_size - 1) / block_size);
+        this.byteLength = length;
+
+        for (int block = 0; block < length; block += block_size) {
+            int blockLength = Math.min(block_size, length - block);
+            BigInteger coefficient = new BigInteger(1, data, offset + block, blockLength);
+            // The missing bytes of a final partial block are zeroes at the end.
+            coefficients.add(coefficient.shiftLeft(Byte.SIZE * (block_size - blockLength)));
+        }
+    }
+
+    public Polynomial(BigInteger p, List<BigInteger> coefficients) {
+        this.p = p;
+        this.coefficients = new ArrayList<>(coefficients);
+
+        for (int i = 0; i < coefficients.size(); ++i) {
+            coefficients.set(i, coefficients.get(i).mod(p));
+        }
+    }
+
+    /**
+     * Realize that in our particular case, we would need only to verify if the free coefficient is equal
+     * to BigInteger.Zero. So, because the polynomial is over Zp, with p-prime, it means that it has no
+     * zero divisors, so since the precomputed inverse is not equal to 0 (simply because it is an inverse),
+     * it follows naturally that the free coefficient is zero iff the result of this function is equal to zero.
+     *
+     * @param partialEncoding the k values of the input.
+     * @return the free coefficient divided by the inverse of the product of all differences (j-i), with j != i
+     * and i, j \in {1,2,., n}.
+     */
+    public static BigInteger computeFreeCoefficientZeroInverses(Encoding partialEncoding, BigInteger p) {
+        if (partialEncoding.size() == 1) {
+            return BigInteger.ZERO;
+        }
+
+        MontgomeryField field = MontgomeryField.of(p);
+        long[][] points = field.toMontgomery(partialEncoding.getPoints());
+        long[][] values = field.toMontgomery(partialEncoding.getValues());
+        int k = points.length;
+        MontgomeryField.Accumulator result = field.newAccumulator().setZero();
+        MontgomeryField.Accumulator toMultiply = field.newAccumulator(); // double product
+
+        for (int i = 0; i < k; ++i) {
+            toMultiply.set(values[i]);
+
+            for (int j = 0; j < k; ++j) {
+                if (i == j) {
+                    continue;
+                }
+
+                toMultiply.multiply(points[j]);
+
+                for (int l = 0; l < k; ++l) { // inner product
+                    if (l == j) {
+                        continue;
+                    }
+
+                    // toMultiply *= (l - j);
+                    toMultiply.multiplyDifference(points[l], points[j]);
+                }
+            }
+
+            result.add(toMultiply.get());
+        }
+
+        return result.toBigInteger();
+    }
+
+    public static BigInteger computeFreeCoefficientOneInverse(Encoding partialEncoding, BigInteger p) {
+        // First calculate the inverse of the product of all distinct non-zero differences between point values.
+        BigInteger inverse = computeAllDifferencesInverse(partialEncoding, p);
+        return inverse.multiply(computeFreeCoefficientZeroInverses(partialEncoding, p)).mod(p);
+    }
+
+    public static BigInteger computeFreeCoefficientKInverses(Encoding partialEncoding, BigInteger p) {
+        MontgomeryField field = MontgomeryField.of(p);
+        long[][] points = field.toMontgomery(partialEncoding.getPoints());
+        long[][] values = field.toMontgomery(partialEncoding.getValues());
+        int k = points.length;
+        MontgomeryField.Accumulator result = field.newAccumulator().setZero();
+        MontgomeryField.Accumulator simpleProduct = field.newAccumulator();
+        MontgomeryField.Accumulator differencesProduct = field.newAccumulator();
+
+        for (int i = 0; i < k; ++i) {
+            simpleProduct.set(values[i]);
+            differencesProduct.setOne();
+
+            for (int j = 0; j < k; ++j) {
+                if (i == j) {
+                    continue;
+                }
+
+                simpleProduct.multiply(points[j]);
+                differencesProduct.multiplyDifference(points[j], points[i]);
+            }
+
+            BigInteger inverse = differencesProduct.toBigInteger().modInverse(p);
+            result.add(simpleProduct.multiply(field.toMontgomery(inverse)).get());
+        }
+
+        return result.toBigInteger();
+    }
+
+
+    /**
+     * Same sum as {@link #computeFreeCoefficientKInverses(Encoding, BigInteger)}, with the k products of
+     * differences inverted together by {@link MontgomeryField#batchInverse(long[][], long[][])}, so with a
+     * single modular inversion.
+     */
+    public static BigInteger computeFreeCoefficientBatchInverse(Encoding partialEncoding, BigInteger p) {
+        MontgomeryField field = MontgomeryField.of(p);
+        long[][] points = field.toMontgomery(partialEncoding.getPoints());
+        long[][] values = field.toMontgomery(partialEncoding.getValues());
+        int k = points.length;
+        long[][] simpleProducts = new long[k][];
+        long[][] differencesProducts = new long[k][];
+        MontgomeryField.Accumulator simpleProduct = field.newAccumulator();
+        MontgomeryField.Accumulator differencesProduct = field.newAccumulator();
+
+        for (int i = 0; i < k; ++i) {
+            simpleProduct.set(values[i]);
+            differencesProduct.setOne();
+
+            for (int j = 0; j < k; ++j) {
+                if (i == j) {
+                    continue;
+                }
+
+                simpleProduct.multiply(points[j]);
+                differencesProduct.multiplyDifference(points[j], points[i]);
+            }
+
+            simpleProducts[i] = simpleProduct.get().clone();
+            differencesProducts[i] = differencesProduct.get().clone();
+        }
+
+        field.batchInverse(differencesProducts, differencesProducts);
+        MontgomeryField.Accumulator result = field.newAccumulator().setZero();
+        for (int i = 0; i < k; ++i) {
+            result.add(simpleProduct.set(simpleProducts[i]).multiply(differencesProducts[i]).get());
+        }
+
+        return result.toBigInteger();
+    }
+
+    public static BigInteger computeFreeCoefficientMaximumInverses(Encoding partialEncoding, BigInteger p) {
+        MontgomeryField field = MontgomeryField.of(p);
+        BigInteger[] pointValues = partialEncoding.getPoints();
+        long[][] points = field.toMontgomery(pointValues);
+        long[][] values = field.toMontgomery(partialEncoding.getValues());
+        int k = points.length;
+        MontgomeryField.Accumulator result = field.newAccumulator().setZero();
+        MontgomeryField.Accumulator toMultiply = field.newAccumulator();
+
+        for (int i = 0; i < k; ++i) {
+            toMultiply.set(values[i]);
+
+            for (int j = 0; j < k; ++j) {
+                if (i == j) {
+                    continue;
+                }
+                BigInteger inverse = pointValues[j].subtract(pointValues[i]).modInverse(p);
+
+                toMultiply.multiply(points[j]);
+                toMultiply.multiply(field.toMontgomery(inverse));
+            }
+
+            result.add(toMultiply.get());
+        }
+
+        return result.toBigInteger();
+    }
+
+    /**
+     * Lagrange interpolation through the master polynomial M(X) = (X - x_1)(X - x_2)...(X - x_k), built once
+     * with a product tree. Since the Lagrange basis polynomial of x_i is M(X) / ((X - x_i) * M'(x_i)), the
+     * result is the sum of y_i / M'(x_i) * M(X) / (X - x_i), and every quotient comes from one synthetic
+     * division, for O(k^2) multiplications in total. M and the M'(x_i) only depend on the points and are
+     * shared by every interpolation through the same points, see {@link LagrangeWeights}.
+     *
+     * @param partialEncoding the k values the polynomial goes through.
+     * @return the interpolated polynomial divided by X, since its free coefficient must be 0.
+     */
+    public static Polynomial interpolate(Encoding partialEncoding, BigInteger p) {
+        Polynomial result = tryInterpolate(partialEncoding, p);
+        Validate.isTrue(result != null, "Polynomial to interpolate must have free coefficient equal to 0.");
+        return result;
+    }
+
+    /**
+     * Same as {@link #interpolate(Encoding, BigInteger)}, for values that may contain errors.
+     *
+     * @return the interpolated polynomial divided by X, or null if its free coefficient is not 0.
+     */
+    public static Polynomial tryInterpolate(Encoding partialEncoding, BigInteger p) {
+        Validate.isTrue(partialEncoding.size() > 0, "Nothing to interpolate: the encoding has no values.");
+
+        LagrangeWeights lagrange = LagrangeWeights.of(partialEncoding, p);
+        MontgomeryField field = lagrange.getField();
+        long[][] points = lagrange.getPoints();
+        long[][] values = field.toMontgomery(partialEncoding.getValues());
+        long[][] master = lagrange.getMaster();
+        long[][] weights = lagrange.getWeights();
+        int k = points.length;
+
+        long[][] coefs = new long[k][];
+        for (int t = 0; t < k; ++t) {
+            coefs[t] = field.newElement();
+        }
+
+        MontgomeryField.Accumulator weight = field.newAccumulator();
+        MontgomeryField.Accumulator quotient = field.newAccumulator();
+        long[] term = field.newElement();
+        long[] scratch = field.newScratch();
+
+        for (int i = 0; i < k; ++i) {
+            weight.set(values[i]).multiply(weights[i]);
+
+            // Synthetic division of M by (X - x_i), adding every weighted quotient coefficient to the result.
+            quotient.set(master[0]);
+            for (int t = 0; t < k; ++t) {
+                if (t > 0) {
+                    quotient.multiplyAdd(points[i], master[t]);
+                }
+                field.multiply(quotient.get(), weight.get(), term, scratch);
+                field.add(coefs[t], term, coefs[t]);
+            }
+        }
+
+        List<BigInteger> coefficients = new ArrayList<>(k);
+        for (long[] coef : coefs) {
+            coefficients.add(field.toBigInteger(coef));
+        }
+
+        Polynomial result = new Polynomial(p, coefficients);
+        result.eliminateTrailingZeroes();
+
+        return result.removeZeroFreeCoefficient() ? result : null;
+    }
+
+    private static BigInteger computeAllDifferencesInverse(Encoding partialEncoding, BigInteger p) {
+        return LagrangeWeights.of(partialEncoding, p).getAllDifferencesInverse();
+    }
+
+    public int getRank() {
+        return coefficients.size() - 1;
+    }
+
+    /**
+     * @return the coefficients, starting with the highest degree; for a polynomial built from a message,
+     * its blocks in order.
+     */
+    public List<BigInteger> getCoefficients() {
+        return Collections.unmodifiableList(coefficients);
+    }
+
+    /**
+     * Method that evaluates the polynomial in an integer point, using Horner's scheme.
+     *
+     * @param point the point the polynomial is evaluated in.
+     * @return the value of the polynomial function in the given point.
+     */
+    public BigInteger eval(BigInteger point) {
+        if (coefficients.size() == 0) {
+            return BigInteger.ZERO;
+        }
+
+        MontgomeryField field = MontgomeryField.of(p);
+        long[][] coefs = getMontgomeryCoefficients(field);
+        long[] x = field.toMontgomery(point);
+        MontgomeryField.Accumulator result = field.newAccumulator().set(coefs[0]);
+
+        for (int i = 1; i < coefs.length; i++) {
+            result.multiplyAdd(x, coefs[i]);
+        }
+
+        return result.multiply(x).toBigInteger();
+    }
+
+    /**
+     * Method that evaluates the polynomial in many points with one pass over the coefficients: every
+     * coefficient is read once and applied as one Horner step in all the points, and no step allocates.
+     *
+     * @param points the points the polynomial is evaluated in.
+     * @return the values of the polynomial function in the given points, in the same order.
+     */
+    public List<BigInteger> evalAll(List<BigInteger> points) {
+        MontgomeryField field = MontgomeryField.of(p);
+        long[][] x = new long[points.size()][];
+        for (int j = 0; j < points.size(); ++j) {
+            x[j] = field.toMontgomery(points.get(j));
+        }
+        return evalAll(x);
+    }
+
+    /**
+     * Same as {@link #evalAll(List)} for points already in the Montgomery form of {@link MontgomeryField#of},
+     * so that points shared by many polynomials are converted once.
+     */
+    public List<BigInteger> evalAll(long[][] x) {
+        List<BigInteger> values = new ArrayList<>(x.length);
+        if (coefficients.size() == 0) {
+            for (int j = 0; j < x.length; ++j) {
+                values.add(BigInteger.ZERO);
+            }
+            return values;
+        }
+
+        MontgomeryField field = MontgomeryField.of(p);
+        long[][] coefs = getMontgomeryCoefficients(field);
+        MontgomeryField.Accumulator[] results = new MontgomeryField.Accumulator[x.length];
+        for (int j = 0; j < x.length; ++j) {
+            results[j] = field.newAccumulator().set(coefs[0]);
+        }
+
+        for (int i = 1; i < coefs.length; i++) {
+            for (int j = 0; j < x.length; ++j) {
+                results[j].multiplyAdd(x[j], coefs[i]);
+            }
+        }
+
+        for (int j = 0; j < x.length; ++j) {
+            values.add(results[j].multiply(x[j]).toBigInteger());
+        }
+        return values;
+    }
+
+    private long[][] getMontgomeryCoefficients(MontgomeryField field) {
+        long[][] coefs = montgomeryCoefficients;
+        if (coefs == null) {
+            coefs = new long[coefficients.size()][];
+            for (int i = 0; i < coefs.length; ++i) {
+                coefs[i] = field.toMontgomery(coefficients.get(i));
+            }
+            montgomeryCoefficients = coefs;
+        }
+        return coefs;
+    }
+
+    public void writeCoefficientsToFile(String filename) throws IOException {
+        writeCoefficientsToFile(filename, coefficients.size(), -1);
+    }
+
+    /**
+     * @param blockCount the number of blocks the polynomial was built from.
+     * @param length     the number of bytes the polynomial was built from, or -1 to write whole blocks.
+     */
+    public void writeCoefficientsToFile(String filename, int blockCount, long length) throws IOException {
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(filename))) {
+            writeCoefficients(os, blockCount, length);
+        }
+    }
+
+    public void writeCoefficients(OutputStream os, int blockCount) throws IOException {
+        writeCoefficients(os, blockCount, -1);
+    }
+
+    /**
+     * Writes every coefficient as one block of exactly (bits of p - 1) / 8 bytes. Interpolation drops leading zero
+     * coefficients, so the polynomial is first padded with zero blocks up to {@code blockCount} blocks.
+     * The padding of a final partial block is cut when the original length is known.
+     *
+     * @param os         the stream the blocks are written to.
+     * @param blockCount the number of blocks the polynomial was built from.
+     * @param length     the number of bytes the polynomial was built from, or -1 to write whole blocks.
+     */
+    public void writeCoefficients(OutputStream os, int blockCount, long length) throws IOException {
+        int blockSize = (p.bitLength() - 1) / Byte.SIZE;
+        byte[] block = new byte[blockSize];
+        long remaining = length < 0 ? Long.MAX_VALUE : length;
+
+        for (int i = coefficients.size(); i < blockCount && remaining > 0; ++i) {
+            os.write(block, 0, (int) Math.min(remaining, blockSize));
+            remaining -= blockSize;
+        }
+
+        for (int i = 0; i < coefficients.size() && remaining > 0; ++i) {
+            // toByteArray() may prepend a sign byte, which is not part of the block.
+            byte[] rep = coefficients.get(i).toByteArray();
+            int repLength = Math.min(rep.length, blockSize);
+
+            Arrays.fill(block, ZERO);
+            System.arraycopy(rep, rep.length - repLength, block, blockSize - repLength, repLength);
+            os.write(block, 0, (int) Math.min(remaining, blockSize));
+            remaining -= blockSize;
+        }
+    }
+
+    /**
+     * @return the number of bytes the polynomial was built from, or -1 if it was not built from bytes.
+     */
+    public long getByteLength() {
+        return byteLength;
+    }
+
+    /**
+     * Method that divides the current polynomial by another one, using schoolbook long division over Zp.
+     *
+     * @param divisor a polynomial with a non-zero leading coefficient.
+     * @return the quotient, or null if the division leaves a non-zero remainder.
+     */
+    public Polynomial divideExactly(Polynomial divisor) {
+        Validate.isTrue(divisor.coefficients.size() > 0 && !divisor.coefficients.get(0).equals(BigInteger.ZERO),
+                "Divisor must have a non-zero leading coefficient.");
+
+        List<BigInteger> remainder = new ArrayList<>(coefficients);
+        List<BigInteger> quotient = new ArrayList<>();
+        BigInteger leadingInverse = divisor.coefficients.get(0).modInverse(p);
+        int quotientSize = remainder.size() - divisor.coefficients.size() + 1;
+
+        for (int i = 0; i < quotientSize; ++i) {
+            BigInteger factor = remainder.get(i).multiply(leadingInverse).mod(p);
+            quotient.add(factor);
+
+            for (int j = 0; j < divisor.coefficients.size(); ++j) {
+                BigInteger toSubstract = factor.multiply(divisor.coefficients.get(j));
+                remainder.set(i + j, remainder.get(i + j).subtract(toSubstract).mod(p));
+            }
+        }
+
+        for (int i = Math.max(quotientSize, 0); i < remainder.size(); ++i) {
+            if (!remainder.get(i).equals(BigInteger.ZERO)) {
+                return null;
+            }
+        }
+
+        Polynomial result = new Polynomial(p, quotient);
+        result.eliminateTrailingZeroes();
+        return result;
+    }
+
+    /**
+     * Method that removes the free coefficient, which must be zero, dividing the polynomial by X. The result
+     * is in the form returned by {@link #interpolate(Encoding, BigInteger)}, ready to be evaluated with
+     * {@link #eval(BigInteger)}.
+     *
+     * @return false if the free coefficient is not zero, in which case the polynomial is left unchanged.
+     */
+    public boolean removeZeroFreeCoefficient() {
+        if (coefficients.size() > 0 && !coefficients.get(coefficients.size() - 1).equals(BigInteger.ZERO)) {
+            return false;
+        }
+
+        if (coefficients.size() > 0) {
+            coefficients.remove(coefficients.size() - 1);
+            montgomeryCoefficients = null;
+        }
+        return true;
+    }
+
+    /**
+     * Method that divides the current polynomial by the simple binomial (X - b). It uses that
+     * a_i = a_{i-1} - b * a_i, \forall i \in {1, 2, ..., k}, where k is the degree of old polynomial.
+     *
+     * @param b the number in the expression (X - b).
+     */
+    private void divideBySimpleBinomial(BigInteger b) {
+        if (coefficients.size() < 2) {
+            coefficients.clear();
+            montgomeryCoefficients = null;
+            return;
+        }
+
+        BigInteger previousCoefficient = coefficients.get(0);
+
+        for (int i = 1; i < coefficients.size() - 1; ++i) {
+            BigInteger toAdd = b.multiply(previousCoefficient).mod(p);
+            BigInteger newCoefficient = coefficients.get(i).add(toAdd).mod(p);
+            coefficients.set(i, newCoefficient);
+
+            previousCoefficient = newCoefficient;
+        }
+
+        coefficients.remove(coefficients.size() - 1);
+        montgomeryCoefficients = null;
+    }
+
+    /**
+     * Maps the file in memory and takes every block straight from the mapped region, so there is no read
+     * call per block. The final partial block is padded with zeroes and the exact length is kept.
+     */
+    private void initializeCoefficientsFromFile(String filename, int block_size) throws IOException {
+        this.coefficients = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            this.byteLength = channel.size();
+            Validate.isTrue(byteLength <= Integer.MAX_VALUE,
+                    "File too large for a single codeword: %d bytes; encode it in stripes.", byteLength);
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, 0, byteLength);
+            byte[] coef = new byte[block_size];
+
+            while (region.hasRemaining()) {
+                int length = Math.min(block_size, region.remaining());
+                Arrays.fill(coef, length, block_size, ZERO);
+                region.get(coef, 0, length);
+                coefficients.add(new BigInteger(1, coef));
+            }
+        }
+    }
+
+    private void eliminateTrailingZeroes() {
+        while (coefficients.size() > 0 && coefficients.get(0).equals(BigInteger.ZERO)) {
+            coefficients.remove(0);
+        }
+        montgomeryCoefficients = null;
+    }
+
+    @Override
+    public String toString() {
+        return coefficients.toString();
+    }
+
+}
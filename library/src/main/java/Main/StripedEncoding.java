@@ -0,0 +1,138 @@
+package Main;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An input split into stripes of at most {@code stripeSize} blocks, each stripe encoded as its own codeword.
+ * <p>
+ * The file layout is a header line with the stripe size, followed by every stripe as a line holding its
+ * codeword length and then its point value pairs. No stripe count is stored, so stripes can be appended
+ * as they are produced, and the package-private read/write methods handle a stream one stripe at a time.
+ */
+public class StripedEncoding {
+    private static final String DELIMITER = "\t:\t";
+    private static final String HEADER = "#stripes";
+    private static final String STRIPE = "#stripe";
+    private static final String SYSTEMATIC = "systematic";
+
+    private int stripeSize;
+    private List<Encoding> stripes;
+
+    public StripedEncoding(int stripeSize) {
+        Validate.isTrue(stripeSize > 0, "Stripe size invalid: %d.", stripeSize);
+
+        this.stripeSize = stripeSize;
+        this.stripes = new ArrayList<>();
+    }
+
+    public void addStripe(Encoding stripe) {
+        stripes.add(stripe);
+    }
+
+    public Encoding getStripe(int index) {
+        Validate.isTrue(0 <= index && index < stripes.size(), "Index out of bounds: %d.", index);
+
+        return stripes.get(index);
+    }
+
+    public int getStripeSize() {
+        return stripeSize;
+    }
+
+    public int size() {
+        return stripes.size();
+    }
+
+    public static StripedEncoding fromFile(String filename) throws IOException {
+        try (BufferedReader is = new BufferedReader(new FileReader(filename))) {
+            return readFrom(is);
+        }
+    }
+
+    public void toFile(String filename) throws IOException {
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(filename))) {
+            writeTo(os);
+        }
+    }
+
+    /**
+     * Reads a whole striped encoding, in the file format, up to the end of the stream.
+     */
+    public static StripedEncoding readFrom(BufferedReader is) throws IOException {
+        StripedEncoding encoding = new StripedEncoding(readHeader(is));
+        Encoding stripe;
+
+        while ((stripe = readStripe(is, Integer.MAX_VALUE)) != null) {
+            encoding.addStripe(stripe);
+        }
+
+        return encoding;
+    }
+
+    /**
+     * Writes the striped encoding in the file format. The stream is neither flushed nor closed.
+     */
+    public void writeTo(OutputStream os) throws IOException {
+        writeHeader(os, stripeSize);
+
+        for (Encoding stripe : stripes) {
+            writeStripe(os, stripe);
+        }
+    }
+
+    /**
+     * @return the stripe size from the header line.
+     */
+    static int readHeader(BufferedReader is) throws IOException {
+        return readHeader(is.readLine(), HEADER);
+    }
+
+    /**
+     * @param maxValues the codeword length of a stripe of stripeSize blocks, above which the length in a
+     *                  stripe line is wrong; a reader that keeps one stripe at a time relies on it.
+     * @return the next stripe, or null at the end of the stream.
+     */
+    static Encoding readStripe(BufferedReader is, long maxValues) throws IOException {
+        String line = is.readLine();
+        if (line == null) {
+            return null;
+        }
+
+        // The stripe line holds the codeword length, the number of bytes of the stripe (-1 if unknown) and,
+        // for a systematic codeword, a marker.
+        String[] info = line.split(DELIMITER);
+        Validate.isTrue(2 <= info.length && info.length <= 4 && info[0].equals(STRIPE), "Header wrong format: %s.", line);
+        Validate.isTrue(info.length < 4 || info[3].equals(SYSTEMATIC), "Header wrong format: %s.", line);
+
+        int values = Integer.parseInt(info[1]);
+        Validate.isTrue(0 <= values && values <= maxValues, "Stripe length invalid: %d.", values);
+        Encoding stripe = Encoding.readFrom(is, values);
+        if (info.length >= 3) {
+            stripe.setMessageLength(Long.parseLong(info[2]));
+        }
+        stripe.setSystematic(info.length == 4);
+        return stripe;
+    }
+
+    static void writeHeader(OutputStream os, int stripeSize) throws IOException {
+        os.write((HEADER + DELIMITER + stripeSize + "\n").getBytes());
+    }
+
+    static void writeStripe(OutputStream os, Encoding stripe) throws IOException {
+        String info = stripe.isSystematic()
+                ? DELIMITER + stripe.getMessageLength() + DELIMITER + SYSTEMATIC
+                : stripe.getMessageLength() < 0 ? "" : DELIMITER + stripe.getMessageLength();
+        os.write((STRIPE + DELIMITER + stripe.size() + info + "\n").getBytes());
+        stripe.writeTo(os);
+    }
+
+    private static int readHeader(String line, String name) {
+        Validate.isTrue(line != null, "Missing %s header.", name);
+
+        String[] info = line.split(DELIMITER);
+        Validate.isTrue(info.length == 2 && info[0].equals(name), "Header wrong format: %s.", line);
+        return Integer.parseInt(info[1]);
+    }
+}
@@ -0,0 +1,17 @@
+package Main;
+
+/**
+ * The timers of the codecs, which only read the clock when someone listens.
+ */
+final class Timing {
+
+    private Timing() {
+    }
+
+    /**
+     * @return the start time of a measurement for the listener, 0 if it is {@link CodecListener#NONE}.
+     */
+    static long start(CodecListener listener) {
+        return listener == CodecListener.NONE ? 0 : System.nanoTime();
+    }
+}
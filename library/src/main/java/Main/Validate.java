@@ -0,0 +1,30 @@
+package Main;
+
+/**
+ * Argument checks of the library, with the behaviour of the commons-lang3 method the code was written against,
+ * so that the library has no dependencies.
+ */
+final class Validate {
+
+    private Validate() {
+    }
+
+    /**
+     * Same as {@link #isTrue(boolean, String, Object...)} for one integer argument, without boxing it or
+     * allocating the argument array on every call, since it guards accessors used in loops.
+     */
+    static void isTrue(boolean expression, String message, long value) {
+        if (!expression) {
+            throw new IllegalArgumentException(String.format(message, value));
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException with the formatted message if the expression is false.
+     */
+    static void isTrue(boolean expression, String message, Object... values) {
+        if (!expression) {
+            throw new IllegalArgumentException(String.format(message, values));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package Main;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodecRoundTripTest {
+    private static final BigInteger P = BigInteger.probablePrime(257, new Random(257));
+    private static final int K = 10;
+    private static final int S = 2;
+
+    @TempDir
+    Path directory;
+
+    private static byte[] randomBytes(int length, Random random) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Replaces the values of {@code count} distinct random indices with other values.
+     */
+    private static Set<Integer> corrupt(Encoding encoding, int count, Random random) {
+        Set<Integer> indices = new HashSet<>();
+        while (indices.size() < count) {
+            indices.add(random.nextInt(encoding.size()));
+        }
+        for (int index : indices) {
+            BigInteger value = encoding.getValue(index).getValue();
+            encoding.setValue(index, value.add(BigInteger.ONE.add(new BigInteger(64, random))).mod(P));
+        }
+        return indices;
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void stripedRoundTripCorrectsUpToSErrors(boolean systematic) {
+        CodeParameters parameters = new CodeParameters(P, K, S, systematic);
+        Encoder encoder = new Encoder(parameters);
+        Decoder decoder = new Decoder(parameters);
+        Random random = new Random(systematic ? 1 : 2);
+
+        List<byte[]> messages = new ArrayList<>();
+        List<ByteBuffer> buffers = new ArrayList<>();
+        // Empty, shorter than a block, a partial stripe and several stripes with a short last block.
+        for (int length : new int[]{0, 5, 100, 3 * K * parameters.getBlockSizeBytes() + 7}) {
+            byte[] message = randomBytes(length, random);
+            messages.add(message);
+            buffers.add(ByteBuffer.wrap(message));
+        }
+
+        List<StripedEncoding> encodings = encoder.encodeAll(buffers);
+        for (StripedEncoding encoding : encodings) {
+            for (int i = 0; i < encoding.size(); ++i) {
+                Encoding stripe = encoding.getStripe(i);
+                assertEquals(systematic, stripe.isSystematic());
+                corrupt(stripe, random.nextInt(S + 1), random);
+            }
+        }
+
+        List<byte[]> decoded = decoder.decodeAll(encodings);
+        for (int i = 0; i < messages.size(); ++i) {
+            assertArrayEquals(messages.get(i), decoded.get(i), "message " + i);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void systematicStripesHoldTheBlocks(boolean systematic) {
+        CodeParameters parameters = new CodeParameters(P, K, S, systematic);
+        int blockSize = parameters.getBlockSizeBytes();
+        byte[] message = randomBytes(K * blockSize, new Random(3));
+
+        Encoding stripe = new Encoder(parameters).encodeAll(List.of(ByteBuffer.wrap(message))).get(0).getStripe(0);
+        assertEquals(K + 2 * S + 1, stripe.size());
+        for (int i = 0; i < K; ++i) {
+            byte[] block = new byte[blockSize];
+            System.arraycopy(message, i * blockSize, block, 0, blockSize);
+            boolean equal = stripe.getValue(i).getValue().equals(new BigInteger(1, block));
+            assertEquals(systematic, equal, "block " + i);
+        }
+    }
+
+    @Test
+    void stripedDecodingFailsOnTooManyErrors() {
+        CodeParameters parameters = new CodeParameters(P, K, S);
+        Random random = new Random(4);
+        byte[] message = randomBytes(K * parameters.getBlockSizeBytes(), random);
+
+        StripedEncoding encoding = new Encoder(parameters).encodeAll(List.of(ByteBuffer.wrap(message))).get(0);
+        corrupt(encoding.getStripe(0), S + 1, random);
+
+        assertNull(new Decoder(parameters).decodeAll(List.of(encoding)).get(0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void fileRoundTripCorrectsUpToSErrors(boolean systematic) throws IOException {
+        CodeParameters parameters = new CodeParameters(P, K, S, systematic);
+        Random random = new Random(systematic ? 5 : 6);
+        byte[] message = randomBytes(K * parameters.getBlockSizeBytes() - 3, random);
+        Path input = Files.write(directory.resolve("message"), message);
+        Path output = directory.resolve("decoded");
+
+        Encoding encoding = new Encoder(parameters).encodeMessage(input.toString());
+        corrupt(encoding, S, random);
+
+        assertTrue(new Decoder(parameters).decodeBerlekampWelch(encoding, output.toString()));
+        assertArrayEquals(message, Files.readAllBytes(output));
+    }
+
+    @Test
+    void erasuresAndErrorsWithinTheBound() throws IOException {
+        CodeParameters parameters = new CodeParameters(P, K, S);
+        Random random = new Random(7);
+        byte[] message = randomBytes(K * parameters.getBlockSizeBytes(), random);
+        Path input = Files.write(directory.resolve("message"), message);
+        Path output = directory.resolve("decoded");
+
+        Encoding encoding = new Encoder(parameters).encodeMessage(input.toString());
+        // 2e + f = 2 + 2 <= 2S
+        Set<Integer> erased = corrupt(encoding, 2, random);
+        Set<BigInteger> erasedPoints = new HashSet<>();
+        for (int index : erased) {
+            erasedPoints.add(encoding.getValue(index).getPoint());
+        }
+        int wrong;
+        do {
+            wrong = random.nextInt(encoding.size());
+        } while (erased.contains(wrong));
+        encoding.setValue(wrong, encoding.getValue(wrong).getValue().add(BigInteger.ONE).mod(P));
+
+        assertTrue(new Decoder(parameters).decodeWithErasures(encoding, erasedPoints, output.toString()));
+        assertArrayEquals(message, Files.readAllBytes(output));
+    }
+
+    @Test
+    void subsetSearchFindsTheIntactValues() throws IOException {
+        // A small codeword, so the search over C(n, K) subsets stays short.
+        CodeParameters parameters = new CodeParameters(P, 4, 1);
+        Random random = new Random(8);
+        byte[] message = randomBytes(4 * parameters.getBlockSizeBytes(), random);
+        Path input = Files.write(directory.resolve("message"), message);
+        Path output = directory.resolve("decoded");
+
+        Encoding encoding = new Encoder(parameters).encodeMessage(input.toString());
+        corrupt(encoding, 1, random);
+
+        assertTrue(new Decoder(parameters, 2).decodeOneInverse(encoding, output.toString()));
+        assertArrayEquals(message, Files.readAllBytes(output));
+    }
+
+    @Test
+    void binaryFieldCodecCorrectsUpToSWrongShards() {
+        Random random = new Random(9);
+        for (BinaryExtensionField field : new BinaryExtensionField[]{BinaryExtensionField.GF_256, BinaryExtensionField.GF_65536}) {
+            BinaryFieldCodec codec = new BinaryFieldCodec(field, K, S);
+            for (int trial = 0; trial < 20; ++trial) {
+                byte[] message = randomBytes(1 + random.nextInt(500), random);
+                byte[][] shards = codec.encode(message);
+
+                int count = random.nextInt(S + 1);
+                Set<Integer> wrong = new HashSet<>();
+                while (wrong.size() < count) {
+                    wrong.add(random.nextInt(shards.length));
+                }
+                for (int j : wrong) {
+                    shards[j][random.nextInt(shards[j].length)] ^= (byte) (1 + random.nextInt(255));
+                }
+
+                assertArrayEquals(message, codec.decode(shards, message.length));
+            }
+        }
+    }
+
+    @Test
+    void binaryFieldCodecRebuildsMissingShards() {
+        BinaryFieldCodec codec = new BinaryFieldCodec(BinaryExtensionField.GF_256, K, S);
+        byte[] message = randomBytes(333, new Random(10));
+        byte[][] shards = codec.encode(message);
+        shards[0] = null;
+        shards[K - 1] = null;
+
+        assertArrayEquals(message, codec.decode(shards, message.length));
+    }
+}
@@ -0,0 +1,142 @@
+package Main;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EncodingBinaryFormatTest {
+    private static final int MAGIC = 0x52534543;
+    private static final BigInteger[] VALUES = {
+            BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(0xFFFF), BigInteger.ONE.shiftLeft(255).add(BigInteger.TEN)
+    };
+    private static final int SYMBOL_BYTES = 32;
+    private static final long FIRST_POINT = 1;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Writes the values in the given version of the binary format: version 1 has no message length, and
+     * version 2 no flags.
+     */
+    private static ByteBuffer write(int version, long messageLength, boolean systematic) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        buffer.putInt(MAGIC);
+        buffer.put((byte) version);
+        buffer.put((byte) SYMBOL_BYTES);
+        buffer.putInt(VALUES.length);
+        buffer.putLong(FIRST_POINT);
+        if (version >= 2) {
+            buffer.putLong(messageLength);
+        }
+        if (version >= 3) {
+            buffer.put((byte) (systematic ? 1 : 0));
+        }
+        buffer.putInt(checksum(buffer, 0, buffer.position()));
+
+        int valuesStart = buffer.position();
+        for (BigInteger value : VALUES) {
+            byte[] rep = value.toByteArray();
+            int length = Math.min(rep.length, SYMBOL_BYTES);
+            buffer.position(buffer.position() + SYMBOL_BYTES - length);
+            buffer.put(rep, rep.length - length, length);
+        }
+        buffer.putInt(checksum(buffer, valuesStart, buffer.position() - valuesStart));
+
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static void assertValues(Encoding encoding) {
+        assertEquals(VALUES.length, encoding.size());
+        for (int i = 0; i < VALUES.length; ++i) {
+            assertEquals(BigInteger.valueOf(FIRST_POINT + i), encoding.getValue(i).getPoint());
+        }
+        assertArrayEquals(VALUES, encoding.getValues());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3})
+    void readsEveryVersion(int version) {
+        Encoding encoding = Encoding.fromByteBuffer(write(version, 100, true));
+
+        assertValues(encoding);
+        assertTrue(encoding.isChecksumValid());
+        assertEquals(version >= 2 ? 100 : -1, encoding.getMessageLength());
+        assertEquals(version >= 3, encoding.isSystematic());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3})
+    void wrongValuesOnlyClearTheChecksum(int version) {
+        ByteBuffer buffer = write(version, 100, false);
+        int lastValueByte = buffer.limit() - Integer.BYTES - 1;
+        buffer.put(lastValueByte, (byte) (buffer.get(lastValueByte) ^ 1));
+
+        assertFalse(Encoding.fromByteBuffer(buffer).isChecksumValid());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3})
+    void corruptedHeaderIsRejected(int version) {
+        ByteBuffer buffer = write(version, 100, false);
+        buffer.put(Integer.BYTES + 2, (byte) 7);
+
+        assertThrows(IllegalArgumentException.class, () -> Encoding.fromByteBuffer(buffer));
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        ByteBuffer buffer = write(3, 100, false);
+        buffer.put(Integer.BYTES, (byte) 4);
+
+        assertThrows(IllegalArgumentException.class, () -> Encoding.fromByteBuffer(buffer));
+    }
+
+    @Test
+    void fileRoundTripKeepsTheHeader() throws IOException {
+        Encoding encoding = new Encoding();
+        for (int i = 0; i < VALUES.length; ++i) {
+            encoding.addValue(BigInteger.valueOf(FIRST_POINT + i), VALUES[i]);
+        }
+        encoding.setMessageLength(12345);
+        encoding.setSystematic(true);
+        String filename = directory.resolve("encoding.bin").toString();
+
+        encoding.toBinaryFile(filename);
+        Encoding read = Encoding.fromBinaryFile(filename);
+
+        assertValues(read);
+        assertTrue(read.isChecksumValid());
+        assertEquals(12345, read.getMessageLength());
+        assertTrue(read.isSystematic());
+    }
+
+    @Test
+    void pointsMustBeConsecutive() {
+        Encoding encoding = new Encoding();
+        encoding.addValue(BigInteger.ONE, BigInteger.ONE);
+        encoding.addValue(BigInteger.valueOf(3), BigInteger.ONE);
+
+        assertThrows(IllegalArgumentException.class, encoding::toByteBuffer);
+    }
+}
@@ -0,0 +1,126 @@
+package Main;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MontgomeryFieldTest {
+    private static final int SAMPLES = 500;
+
+    private static BigInteger prime(int bits) {
+        // 2^521 - 1 is a Mersenne prime, the worst case of a full top limb.
+        return bits == 521 ? BigInteger.ONE.shiftLeft(521).subtract(BigInteger.ONE) : BigInteger.probablePrime(bits, new Random(bits));
+    }
+
+    private static BigInteger[] sample(BigInteger p, Random random) {
+        BigInteger[] values = new BigInteger[SAMPLES];
+        values[0] = BigInteger.ZERO;
+        values[1] = BigInteger.ONE;
+        values[2] = p.subtract(BigInteger.ONE);
+        values[3] = p.subtract(BigInteger.TWO);
+        for (int i = 4; i < SAMPLES; ++i) {
+            values[i] = new BigInteger(p.bitLength(), random).mod(p);
+        }
+        return values;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {64, 128, 257, 521})
+    void arithmeticMatchesBigInteger(int bits) {
+        BigInteger p = prime(bits);
+        MontgomeryField field = MontgomeryField.of(p);
+        Random random = new Random(bits);
+        BigInteger[] a = sample(p, random);
+        BigInteger[] b = sample(p, random);
+        long[] result = field.newElement();
+        long[] scratch = field.newScratch();
+
+        for (int i = 0; i < SAMPLES; ++i) {
+            for (int j = i; j < SAMPLES; j += 37) {
+                long[] x = field.toMontgomery(a[i]);
+                long[] y = field.toMontgomery(b[j]);
+                assertEquals(a[i], field.toBigInteger(x));
+
+                field.multiply(x, y, result, scratch);
+                assertEquals(a[i].multiply(b[j]).mod(p), field.toBigInteger(result), "multiply");
+                field.add(x, y, result);
+                assertEquals(a[i].add(b[j]).mod(p), field.toBigInteger(result), "add");
+                field.subtract(x, y, result);
+                assertEquals(a[i].subtract(b[j]).mod(p), field.toBigInteger(result), "subtract");
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {64, 128, 257, 521})
+    void operandsMayBeTheResult(int bits) {
+        BigInteger p = prime(bits);
+        MontgomeryField field = MontgomeryField.of(p);
+        BigInteger a = p.subtract(BigInteger.ONE);
+        long[] x = field.toMontgomery(a);
+
+        field.multiply(x, x, x, field.newScratch());
+        assertEquals(a.multiply(a).mod(p), field.toBigInteger(x));
+        field.add(x, x, x);
+        assertEquals(BigInteger.TWO, field.toBigInteger(x));
+        field.subtract(x, x, x);
+        assertEquals(BigInteger.ZERO, field.toBigInteger(x));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {64, 128, 257, 521})
+    void batchInverseMatchesModInverse(int bits) {
+        BigInteger p = prime(bits);
+        MontgomeryField field = MontgomeryField.of(p);
+        Random random = new Random(bits);
+        BigInteger[] values = new BigInteger[100];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = new BigInteger(p.bitLength(), random).mod(p.subtract(BigInteger.ONE)).add(BigInteger.ONE);
+        }
+        values[0] = BigInteger.ONE;
+        values[1] = p.subtract(BigInteger.ONE);
+
+        long[][] elements = field.toMontgomery(values);
+        long[][] inverses = new long[values.length][];
+        for (int i = 0; i < inverses.length; ++i) {
+            inverses[i] = field.newElement();
+        }
+        field.batchInverse(elements, inverses);
+        for (int i = 0; i < values.length; ++i) {
+            assertEquals(values[i].modInverse(p), field.toBigInteger(inverses[i]));
+        }
+
+        // In place.
+        field.batchInverse(elements, elements);
+        for (int i = 0; i < values.length; ++i) {
+            assertEquals(values[i].modInverse(p), field.toBigInteger(elements[i]));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {64, 257})
+    void accumulatorRunsHornersScheme(int bits) {
+        BigInteger p = prime(bits);
+        MontgomeryField field = MontgomeryField.of(p);
+        Random random = new Random(bits);
+        BigInteger[] coefficients = sample(p, random);
+        BigInteger x = new BigInteger(p.bitLength(), random).mod(p);
+
+        BigInteger expected = BigInteger.ZERO;
+        MontgomeryField.Accumulator accumulator = field.newAccumulator().setZero();
+        long[] point = field.toMontgomery(x);
+        for (BigInteger coefficient : coefficients) {
+            expected = expected.multiply(x).add(coefficient).mod(p);
+            accumulator.multiplyAdd(point, field.toMontgomery(coefficient));
+        }
+        assertEquals(expected, accumulator.toBigInteger());
+
+        BigInteger y = coefficients[coefficients.length - 1];
+        accumulator.setOne().multiplyDifference(point, field.toMontgomery(y));
+        assertEquals(x.subtract(y).mod(p), accumulator.toBigInteger());
+    }
+}
@@ -0,0 +1,39 @@
+package Main;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubsetEnumerationTest {
+    @ParameterizedTest
+    @CsvSource({"1, 1", "5, 1", "5, 5", "7, 3", "8, 6", "12, 5", "16, 9"})
+    void unrankCoversEverySubsetOnce(int n, int k) {
+        BigInteger count = Decoder.countSubsets(n, k);
+        BigInteger firstCount = Decoder.countSubsets(n - 1, k - 1);
+        Set<String> subsets = new HashSet<>();
+        int[] indices = new int[k];
+        int[] previous = null;
+
+        for (long rank = 0; rank < count.longValueExact(); ++rank) {
+            Decoder.unrank(BigInteger.valueOf(rank), n, firstCount, indices);
+            for (int i = 0; i < k; ++i) {
+                assertTrue(0 <= indices[i] && indices[i] < n, "index out of range");
+                assertTrue(i == 0 || indices[i - 1] < indices[i], "indices not increasing");
+            }
+            if (previous != null) {
+                assertTrue(Arrays.compare(previous, indices) < 0, "not in lexicographic order");
+            }
+            previous = indices.clone();
+            subsets.add(Arrays.toString(indices));
+        }
+
+        assertEquals(count.longValueExact(), subsets.size());
+    }
+}
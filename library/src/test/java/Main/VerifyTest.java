@@ -0,0 +1,61 @@
+package Main;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VerifyTest {
+    private static final BigInteger P = BigInteger.probablePrime(257, new Random(257));
+    private static final int K = 8;
+    private static final int S = 3;
+
+    private static Encoding encode(boolean systematic, Random random) {
+        CodeParameters parameters = new CodeParameters(P, K, S, systematic);
+        byte[] message = new byte[K * parameters.getBlockSizeBytes()];
+        random.nextBytes(message);
+        return new Encoder(parameters).encodeAll(List.of(ByteBuffer.wrap(message))).get(0).getStripe(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void verdictFollowsTheNumberOfErrors(boolean systematic) {
+        Decoder decoder = new Decoder(new CodeParameters(P, K, S, systematic));
+        Random random = new Random(systematic ? 11 : 12);
+
+        for (int errors = 0; errors <= S + 2; ++errors) {
+            Encoding encoding = encode(systematic, random);
+            for (int index = 0; index < errors; ++index) {
+                // Spread over the codeword, and distinct for up to S + 2 errors.
+                int target = (index * 3) % encoding.size();
+                encoding.setValue(target, encoding.getValue(target).getValue().add(BigInteger.valueOf(1 + random.nextInt(1000))).mod(P));
+            }
+
+            Decoder.Integrity expected = errors == 0 ? Decoder.Integrity.CLEAN
+                    : errors <= S ? Decoder.Integrity.CORRECTABLE : Decoder.Integrity.UNCORRECTABLE;
+            assertEquals(expected, decoder.verify(encoding), errors + " errors");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void uncheckableCodewordsAreUncorrectable(boolean systematic) {
+        Decoder decoder = new Decoder(new CodeParameters(P, K, S, systematic));
+        Random random = new Random(13);
+
+        Encoding encoding = encode(systematic, random);
+        assertEquals(Decoder.Integrity.UNCORRECTABLE, decoder.verify(encoding.createPartialEncoding(2 * S)));
+
+        Encoding duplicated = new Encoding();
+        for (int i = 0; i < encoding.size(); ++i) {
+            duplicated.addValue(encoding.getValue(i));
+        }
+        duplicated.addValue(encoding.getValue(0));
+        assertEquals(Decoder.Integrity.UNCORRECTABLE, decoder.verify(duplicated));
+    }
+}